@@ -0,0 +1,54 @@
+package org.spring.pftsystem.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.spring.pftsystem.utility.TwoLevelCacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
+public class CacheConfig {
+
+    // Local Caffeine L1 in front of Redis L2, replaces the auto-configured Redis-only manager
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     TwoLevelCacheProperties properties,
+                                     StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     RedisSerializer<Object> redisValueSerializer,
+                                     MeterRegistry meterRegistry) {
+        RedisCacheManager remoteCacheManager = RedisCacheManager.builder(redisConnectionFactory)
+                .cacheDefaults(redisCacheConfiguration(properties.getDefaults(), redisValueSerializer))
+                .withInitialCacheConfigurations(redisCacheConfigurations(properties, redisValueSerializer))
+                .build();
+        remoteCacheManager.afterPropertiesSet(); // not a bean, create the configured caches now
+
+        return new TwoLevelCacheManager(remoteCacheManager, properties, redisTemplate, listenerContainer, meterRegistry);
+    }
+
+    private Map<String, RedisCacheConfiguration> redisCacheConfigurations(TwoLevelCacheProperties properties, RedisSerializer<Object> serializer) {
+        Map<String, RedisCacheConfiguration> configurations = new HashMap<>();
+        properties.getCaches().forEach((name, spec) -> configurations.put(name, redisCacheConfiguration(spec, serializer)));
+        return configurations;
+    }
+
+    private RedisCacheConfiguration redisCacheConfiguration(TwoLevelCacheProperties.Spec spec, RedisSerializer<Object> serializer) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(spec.getRedisTtl())
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+    }
+}
@@ -0,0 +1,74 @@
+package org.spring.pftsystem.config;
+
+import lombok.extern.java.Log;
+import org.bson.Document;
+import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.MongoCallCounter;
+import org.spring.pftsystem.utility.TransactionDates;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+
+    // Per-request MongoDB command count, reported by MongoCallLoggingFilter
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCallCounterCustomizer() {
+        return builder -> builder.addCommandListener(new MongoCallCounter());
+    }
+
+    // Dual read while TransactionDateMigrationService rewrites string dates as BSON dates
+    @Bean
+    public LegacyTransactionDateListener legacyTransactionDateListener(TransactionRepositoryImpl transactionRepository) {
+        return new LegacyTransactionDateListener(transactionRepository);
+    }
+
+    /**
+     * Turns a string transactionDate / lastUpdatedAt of a loaded Transaction into a date before it is mapped.
+     * Only those two fields of that one entity are touched, and nothing at all once the legacy date window
+     * is closed (TransactionRepositoryImpl), so no other String is ever read as a date.
+     */
+    @Log
+    static class LegacyTransactionDateListener extends AbstractMongoEventListener<Transaction> {
+
+        static final List<String> LEGACY_DATE_FIELDS = List.of("transactionDate", "lastUpdatedAt");
+
+        private final TransactionRepositoryImpl transactionRepository;
+
+        LegacyTransactionDateListener(TransactionRepositoryImpl transactionRepository) {
+            this.transactionRepository = transactionRepository;
+        }
+
+        @Override
+        public void onAfterLoad(AfterLoadEvent<Transaction> event) {
+            Document document = event.getDocument();
+            if (document == null || !transactionRepository.isLegacyDateWindowOpen()) {
+                return;
+            }
+            for (String field : LEGACY_DATE_FIELDS) {
+                if (document.get(field) instanceof String legacy) {
+                    document.put(field, toDate(document.get("_id"), field, legacy));
+                }
+            }
+        }
+
+        // one unreadable legacy value must not fail the whole read, it is mapped as null
+        private static Date toDate(Object id, String field, String legacy) {
+            try {
+                return Date.from(TransactionDates.parse(legacy).atZone(ZoneId.systemDefault()).toInstant());
+            } catch (DateTimeParseException e) {
+                log.warning("Unreadable " + field + " '" + legacy + "' on transaction " + id + ", read as null");
+                return null;
+            }
+        }
+    }
+}
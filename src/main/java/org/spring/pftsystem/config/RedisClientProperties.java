@@ -0,0 +1,55 @@
+package org.spring.pftsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "redis.client")
+public class RedisClientProperties {
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    // Upper bound for any single command, callers fail fast instead of queueing behind a slow Redis
+    private Duration commandTimeout = Duration.ofMillis(500);
+    private Duration shutdownTimeout = Duration.ofMillis(100);
+
+    // TCP keepalive so dead connections behind NAT/load balancers are detected
+    private boolean keepAlive = true;
+    private Duration keepAliveIdle = Duration.ofSeconds(30);
+    private Duration keepAliveInterval = Duration.ofSeconds(10);
+    private int keepAliveCount = 3;
+
+    // Reject commands while disconnected instead of buffering them until reconnect
+    private boolean rejectWhenDisconnected = true;
+
+    // Regular commands multiplex over one shared connection, blocking ops / transactions / pipelines use the pool
+    private boolean shareNativeConnection = true;
+    private Pool pool = new Pool();
+
+    // flush-each-command, flush-on-close or buffered (flush every pipeline-buffer-size commands)
+    private String pipelineFlush = "flush-on-close";
+    private int pipelineBufferSize = 64;
+
+    // Per-command latency (lettuce.command.completion / firstresponse) with histogram buckets
+    private boolean latencyHistogram = true;
+
+    public LettuceConnection.PipeliningFlushPolicy pipeliningFlushPolicy() {
+        return switch (pipelineFlush) {
+            case "flush-each-command" -> LettuceConnection.PipeliningFlushPolicy.flushEachCommand();
+            case "buffered" -> LettuceConnection.PipeliningFlushPolicy.buffered(pipelineBufferSize);
+            case "flush-on-close" -> LettuceConnection.PipeliningFlushPolicy.flushOnClose();
+            default -> throw new IllegalStateException("Unknown redis.client.pipeline-flush: " + pipelineFlush);
+        };
+    }
+
+    @Data
+    public static class Pool {
+        private boolean enabled = true;
+        private int maxActive = 8;
+        private int maxIdle = 8;
+        private int minIdle = 1;
+        private Duration maxWait = Duration.ofMillis(200);
+    }
+}
@@ -1,14 +1,33 @@
 package org.spring.pftsystem.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.metrics.MicrometerCommandLatencyRecorder;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.spring.pftsystem.utility.SmileRedisSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 @Configuration
+@EnableConfigurationProperties(RedisClientProperties.class)
 public class RedisConfig {
 
     @Value("${spring.data.redis.host}")
@@ -17,15 +36,82 @@ public class RedisConfig {
     @Value("${spring.data.redis.port}")
     private int port;
 
+    // Records per-command latency into Micrometer
+    @Bean(destroyMethod = "shutdown")
+    public ClientResources lettuceClientResources(MeterRegistry meterRegistry, RedisClientProperties properties) {
+        MicrometerOptions options = MicrometerOptions.builder()
+                .histogram(properties.isLatencyHistogram())
+                .build();
+        return DefaultClientResources.builder()
+                .commandLatencyRecorder(new MicrometerCommandLatencyRecorder(meterRegistry, options))
+                .build();
+    }
+
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        return new LettuceConnectionFactory(host,port);
+    public RedisConnectionFactory redisConnectionFactory(ClientResources clientResources, RedisClientProperties properties) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = properties.getPool().isEnabled()
+                ? LettucePoolingClientConfiguration.builder().poolConfig(poolConfig(properties.getPool()))
+                : LettuceClientConfiguration.builder();
+
+        LettuceClientConfiguration clientConfiguration = builder
+                .clientResources(clientResources)
+                .clientOptions(clientOptions(properties))
+                .commandTimeout(properties.getCommandTimeout())
+                .shutdownTimeout(properties.getShutdownTimeout())
+                .build();
+
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port), clientConfiguration);
+        factory.setShareNativeConnection(properties.isShareNativeConnection());
+        factory.setPipeliningFlushPolicy(properties.pipeliningFlushPolicy());
+        return factory;
+    }
+
+    private ClientOptions clientOptions(RedisClientProperties properties) {
+        SocketOptions.KeepAliveOptions keepAlive = SocketOptions.KeepAliveOptions.builder()
+                .enable(properties.isKeepAlive())
+                .idle(properties.getKeepAliveIdle())
+                .interval(properties.getKeepAliveInterval())
+                .count(properties.getKeepAliveCount())
+                .build();
+
+        return ClientOptions.builder()
+                .socketOptions(SocketOptions.builder()
+                        .connectTimeout(properties.getConnectTimeout())
+                        .keepAlive(keepAlive)
+                        .build())
+                .timeoutOptions(TimeoutOptions.enabled(properties.getCommandTimeout()))
+                .disconnectedBehavior(properties.isRejectWhenDisconnected()
+                        ? ClientOptions.DisconnectedBehavior.REJECT_COMMANDS
+                        : ClientOptions.DisconnectedBehavior.DEFAULT)
+                .build();
+    }
+
+    private GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig(RedisClientProperties.Pool pool) {
+        GenericObjectPoolConfig<StatefulConnection<?, ?>> config = new GenericObjectPoolConfig<>();
+        config.setMaxTotal(pool.getMaxActive());
+        config.setMaxIdle(pool.getMaxIdle());
+        config.setMinIdle(pool.getMinIdle());
+        config.setMaxWait(pool.getMaxWait());
+        return config;
+    }
+
+    // Value format for RedisTemplate<String, Object> and the cache L2: smile (default) or json
+    @Bean
+    public RedisSerializer<Object> redisValueSerializer(@Value("${redis.value-serializer:smile}") String format) {
+        return switch (format.toLowerCase()) {
+            case "json" -> new GenericJackson2JsonRedisSerializer();
+            default -> new SmileRedisSerializer();
+        };
     }
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory, RedisSerializer<Object> redisValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(redisValueSerializer);
+        template.setHashValueSerializer(redisValueSerializer);
         return template;
     }
 
@@ -33,4 +119,12 @@ public class RedisConfig {
     public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
         return new StringRedisTemplate(redisConnectionFactory);
     }
+
+    // Shared pub/sub container, components register their own channel listeners
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
 }
@@ -0,0 +1,30 @@
+package org.spring.pftsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "cache.two-level")
+public class TwoLevelCacheProperties {
+
+    // Used for cache names without their own entry
+    private Spec defaults = new Spec();
+
+    // Per cache name overrides, e.g. cache.two-level.caches.budgetOfUser.local-ttl=30s
+    private Map<String, Spec> caches = new HashMap<>();
+
+    public Spec specFor(String cacheName) {
+        return caches.getOrDefault(cacheName, defaults);
+    }
+
+    @Data
+    public static class Spec {
+        private Duration localTtl = Duration.ofSeconds(60);
+        private long localMaxSize = 10_000;
+        private Duration redisTtl = Duration.ofMinutes(10);
+    }
+}
@@ -8,4 +8,15 @@ public class Constants {
     public static final String USER_ALREADY_EXISTS = "USER ALREADY EXISTS";
     public static final String SERVER_ERROR = "Server Error Occurred. Please Try Again Later";
     public static final String USER_NOT_FOUND = "USER NOT FOUND";
+
+    //Redis pub/sub channels
+    public static final String TOKEN_INVALIDATION_CHANNEL = "auth:token-invalidation";
+    public static final String SETTINGS_CHANGED_CHANNEL = "settings:changed";
+    public static final String CACHE_INVALIDATION_CHANNEL = "cache:invalidation";
+    public static final String USER_CHANGED_CHANNEL = "user:changed";
+
+    //Cache names (per-cache TTL and size under cache.two-level.caches.<name>)
+    public static final String BUDGET_OF_USER_CACHE = "budgetOfUser";
+    public static final String GOALS_OF_USER_CACHE = "goalsOfUser";
+    public static final String DASHBOARD_OF_USER_CACHE = "dashboardOfUser";
 }
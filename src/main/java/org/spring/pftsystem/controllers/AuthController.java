@@ -1,10 +1,13 @@
 package org.spring.pftsystem.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.spring.pftsystem.entity.request.LoginRequest;
+import org.spring.pftsystem.entity.request.RefreshRequest;
 import org.spring.pftsystem.entity.request.RegisterRequest;
 import org.spring.pftsystem.entity.response.AuthResponse;
 import org.spring.pftsystem.entity.response.LogoutResponse;
 import org.spring.pftsystem.entity.response.RegistrationResponse;
+import org.spring.pftsystem.services.AuthRateLimiter;
 import org.spring.pftsystem.services.AuthService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,29 +20,59 @@ import javax.security.auth.login.CredentialNotFoundException;
 public class AuthController  {
 
     private final AuthService authService;
+    private final AuthRateLimiter authRateLimiter;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, AuthRateLimiter authRateLimiter) {
         this.authService = authService;
+        this.authRateLimiter = authRateLimiter;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<RegistrationResponse> register(@RequestBody RegisterRequest request) {
-        String response = authService.register(request.getEmail(), request.getPassword());
+    public ResponseEntity<RegistrationResponse> register(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        authRateLimiter.check(httpRequest.getRemoteAddr(), request.getEmail());
+        String response;
+        try {
+            response = authService.register(request.getEmail(), request.getPassword());
+        } catch (IllegalArgumentException e) {
+            authRateLimiter.recordFailure(request.getEmail());
+            throw e;
+        }
         RegistrationResponse registrationResponse = new RegistrationResponse(HttpStatus.CREATED.value(),response);
         return ResponseEntity.status(HttpStatus.CREATED).body(registrationResponse);
     }
 
     @PostMapping("/registerAdmin")
-    public ResponseEntity<RegistrationResponse> registerAdmin(@RequestBody RegisterRequest request) {
-        String response = authService.registerAdmin(request.getEmail(), request.getPassword());
+    public ResponseEntity<RegistrationResponse> registerAdmin(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        authRateLimiter.check(httpRequest.getRemoteAddr(), request.getEmail());
+        String response;
+        try {
+            response = authService.registerAdmin(request.getEmail(), request.getPassword());
+        } catch (IllegalArgumentException e) {
+            authRateLimiter.recordFailure(request.getEmail());
+            throw e;
+        }
         RegistrationResponse registrationResponse = new RegistrationResponse(HttpStatus.CREATED.value(),response);
         return ResponseEntity.status(HttpStatus.CREATED).body(registrationResponse);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request) throws CredentialNotFoundException {
-        String token = authService.login(request.getEmail(), request.getPassword());
-        return ResponseEntity.ok(new AuthResponse("Login Success", token));
+    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) throws CredentialNotFoundException {
+        authRateLimiter.check(httpRequest.getRemoteAddr(), request.getEmail());
+        AuthResponse response;
+        try {
+            response = authService.login(request.getEmail(), request.getPassword());
+        } catch (CredentialNotFoundException e) {
+            authRateLimiter.recordFailure(request.getEmail()); // only failures drain the email bucket
+            throw e;
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshRequest request, HttpServletRequest httpRequest) throws CredentialNotFoundException {
+        authRateLimiter.check(httpRequest.getRemoteAddr(), null);
+        AuthResponse response = authService.refresh(request.getRefreshToken());
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/logout")
@@ -47,4 +80,10 @@ public class AuthController  {
        authService.logout(token);
        return ResponseEntity.ok(new LogoutResponse("Logout Success"));
     }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<LogoutResponse> logoutAll() {
+        authService.logoutAll();
+        return ResponseEntity.ok(new LogoutResponse("Logged Out Of All Devices"));
+    }
 }
\ No newline at end of file
@@ -3,27 +3,36 @@ package org.spring.pftsystem.controllers;
 import org.spring.pftsystem.entity.response.DashboardAdmin;
 import org.spring.pftsystem.entity.response.DashboardUser;
 import org.spring.pftsystem.services.DashboardService;
+import org.spring.pftsystem.services.DataVersionService;
+import org.spring.pftsystem.utility.ConditionalResponses;
+import org.spring.pftsystem.utility.UserUtil;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.YearMonth;
 
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
 
     DashboardService dashboardService;
+    DataVersionService dataVersionService;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, DataVersionService dataVersionService) {
         this.dashboardService = dashboardService;
+        this.dataVersionService = dataVersionService;
     }
 
     @PreAuthorize("hasRole('user')")
     @GetMapping("/user")
-    public ResponseEntity<DashboardUser> userDashBoard() {
-        DashboardUser response = dashboardService.getDashboardUserData();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<DashboardUser> userDashBoard(WebRequest request) {
+        // monthly figures, so the month is part of the ETag
+        String etag = dataVersionService.etag(UserUtil.getCurrentUserId(), YearMonth.now());
+        return ConditionalResponses.okWithETag(request, etag, dashboardService::getDashboardUserData);
     }
 
     @PreAuthorize("hasRole('administrator')")
@@ -4,7 +4,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.spring.pftsystem.entity.response.BudgetNotification;
 import org.spring.pftsystem.entity.response.GoalNotification;
 import org.spring.pftsystem.entity.response.RecurringTransactionNotification;
+import org.spring.pftsystem.services.DataVersionService;
 import org.spring.pftsystem.services.NotificationService;
+import org.spring.pftsystem.utility.ConditionalResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -12,7 +14,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,19 +32,24 @@ public class NotificationsController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
     /**
      * Get all budget notifications for the current user
      * @return List of budget notifications
      */
     @GetMapping("/budgets")
-    public ResponseEntity<List<BudgetNotification>> getBudgetNotifications() {
+    public ResponseEntity<List<BudgetNotification>> getBudgetNotifications(WebRequest request) {
         String userId = getCurrentUserId();
         log.info("Fetching budget notifications for user: {}", userId);
 
-        List<BudgetNotification> notifications = notificationService.getBudgetNotifications(userId);
+        return ConditionalResponses.okWithETag(request, etag(userId), () -> {
+            List<BudgetNotification> notifications = notificationService.getBudgetNotifications(userId);
 
-        log.info("Returning {} budget notifications", notifications.size());
-        return ResponseEntity.ok(notifications);
+            log.info("Returning {} budget notifications", notifications.size());
+            return notifications;
+        });
     }
 
     /**
@@ -48,14 +57,16 @@ public class NotificationsController {
      * @return List of recurring transaction notifications
      */
     @GetMapping("/recurring-transactions")
-    public ResponseEntity<List<RecurringTransactionNotification>> getRecurringTransactionNotifications() {
+    public ResponseEntity<List<RecurringTransactionNotification>> getRecurringTransactionNotifications(WebRequest request) {
         String userId = getCurrentUserId();
         log.info("Fetching recurring transaction notifications for user: {}", userId);
 
-        List<RecurringTransactionNotification> notifications = notificationService.getRecurringTransactionNotifications(userId);
+        return ConditionalResponses.okWithETag(request, etag(userId), () -> {
+            List<RecurringTransactionNotification> notifications = notificationService.getRecurringTransactionNotifications(userId);
 
-        log.info("Returning {} recurring transaction notifications", notifications.size());
-        return ResponseEntity.ok(notifications);
+            log.info("Returning {} recurring transaction notifications", notifications.size());
+            return notifications;
+        });
     }
 
     /**
@@ -63,14 +74,16 @@ public class NotificationsController {
      * @return List of goal notifications
      */
     @GetMapping("/goals")
-    public ResponseEntity<List<GoalNotification>> getGoalNotifications() {
+    public ResponseEntity<List<GoalNotification>> getGoalNotifications(WebRequest request) {
         String userId = getCurrentUserId();
         log.info("Fetching goal notifications for user: {}", userId);
 
-        List<GoalNotification> notifications = notificationService.getGoalNotifications(userId);
+        return ConditionalResponses.okWithETag(request, etag(userId), () -> {
+            List<GoalNotification> notifications = notificationService.getGoalNotifications(userId);
 
-        log.info("Returning {} goal notifications", notifications.size());
-        return ResponseEntity.ok(notifications);
+            log.info("Returning {} goal notifications", notifications.size());
+            return notifications;
+        });
     }
 
     /**
@@ -78,10 +91,14 @@ public class NotificationsController {
      * @return Map containing all notification types
      */
     @GetMapping("/all")
-    public ResponseEntity<Map<String, Object>> getAllNotifications() {
+    public ResponseEntity<Map<String, Object>> getAllNotifications(WebRequest request) {
         String userId = getCurrentUserId();
         log.info("Fetching all notifications for user: {}", userId);
 
+        return ConditionalResponses.okWithETag(request, etag(userId), () -> collectAllNotifications(userId));
+    }
+
+    private Map<String, Object> collectAllNotifications(String userId) {
         List<BudgetNotification> budgetNotifications = notificationService.getBudgetNotifications(userId);
         List<RecurringTransactionNotification> recurringTransactionNotifications =
                 notificationService.getRecurringTransactionNotifications(userId);
@@ -96,7 +113,7 @@ public class NotificationsController {
         allNotifications.put("totalCount", totalCount);
 
         log.info("Returning {} total notifications", totalCount);
-        return ResponseEntity.ok(allNotifications);
+        return allNotifications;
     }
 
     /**
@@ -104,10 +121,14 @@ public class NotificationsController {
      * @return Count of notifications by type
      */
     @GetMapping("/count")
-    public ResponseEntity<Map<String, Integer>> getNotificationCount() {
+    public ResponseEntity<Map<String, Integer>> getNotificationCount(WebRequest request) {
         String userId = getCurrentUserId();
         log.info("Fetching notification count for user: {}", userId);
 
+        return ConditionalResponses.okWithETag(request, etag(userId), () -> countNotifications(userId));
+    }
+
+    private Map<String, Integer> countNotifications(String userId) {
         List<BudgetNotification> budgetNotifications = notificationService.getBudgetNotifications(userId);
         List<RecurringTransactionNotification> recurringTransactionNotifications =
                 notificationService.getRecurringTransactionNotifications(userId);
@@ -120,7 +141,14 @@ public class NotificationsController {
         counts.put("total", budgetNotifications.size() + recurringTransactionNotifications.size() + goalNotifications.size());
 
         log.info("Returning notification counts: {}", counts);
-        return ResponseEntity.ok(counts);
+        return counts;
+    }
+
+    /**
+     * ETag from the user's data version, notifications also depend on the current date
+     */
+    private String etag(String userId) {
+        return dataVersionService.etag(userId, LocalDate.now());
     }
 
     /**
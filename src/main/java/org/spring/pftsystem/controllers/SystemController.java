@@ -1,7 +1,9 @@
 package org.spring.pftsystem.controllers;
 
 import lombok.extern.java.Log;
+import org.spring.pftsystem.entity.response.GenericResponse;
 import org.spring.pftsystem.entity.schema.main.SystemSettings;
+import org.spring.pftsystem.services.AuthService;
 import org.spring.pftsystem.services.SystemSettingsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,9 +16,11 @@ import org.springframework.web.bind.annotation.*;
 public class SystemController {
 
     private final SystemSettingsService systemSettings;
+    private final AuthService authService;
 
-    public SystemController (SystemSettingsService systemSettings) {
+    public SystemController (SystemSettingsService systemSettings, AuthService authService) {
         this.systemSettings = systemSettings;
+        this.authService = authService;
     }
 
     @GetMapping("/settings")
@@ -31,4 +35,10 @@ public class SystemController {
         return ResponseEntity.ok().body(updatedSettings);
     }
 
+    @PutMapping("/users/{id}/role")
+    public ResponseEntity<GenericResponse> userRoleUpdate(@PathVariable String id, @RequestParam String role) {
+        authService.changeRole(id, role);
+        return ResponseEntity.ok().body(new GenericResponse(200, "Role Updated"));
+    }
+
 }
@@ -2,13 +2,30 @@ package org.spring.pftsystem.controllers;
 
 import jakarta.validation.Valid;
 import lombok.extern.java.Log;
+import org.spring.pftsystem.entity.request.TransactionFilter;
+import org.spring.pftsystem.entity.response.CategoryValidationResult;
 import org.spring.pftsystem.entity.response.GenericResponse;
+import org.spring.pftsystem.entity.response.ImportJobStatus;
+import org.spring.pftsystem.entity.response.TransactionPage;
 import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.services.CategoryService;
+import org.spring.pftsystem.services.DataVersionService;
+import org.spring.pftsystem.services.StatementImportService;
+import org.spring.pftsystem.services.TransactionExportService;
 import org.spring.pftsystem.services.TransactionsService;
+import org.spring.pftsystem.utility.ConditionalResponses;
+import org.spring.pftsystem.utility.UserUtil;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,9 +35,17 @@ import java.util.List;
 public class TransactionsController {
 
     private final TransactionsService transactionsService;
+    private final CategoryService categoryService;
+    private final DataVersionService dataVersionService;
+    private final TransactionExportService transactionExportService;
+    private final StatementImportService statementImportService;
 
-    public TransactionsController(TransactionsService transactionsService) {
+    public TransactionsController(TransactionsService transactionsService, CategoryService categoryService, DataVersionService dataVersionService, TransactionExportService transactionExportService, StatementImportService statementImportService) {
         this.transactionsService = transactionsService;
+        this.categoryService = categoryService;
+        this.dataVersionService = dataVersionService;
+        this.transactionExportService = transactionExportService;
+        this.statementImportService = statementImportService;
     }
 
     @PreAuthorize("hasRole('user')")
@@ -30,11 +55,44 @@ public class TransactionsController {
         return ResponseEntity.ok().body(newTransaction);
     }
 
+    @PreAuthorize("hasRole('user')")
+    @PostMapping("/bulk")
+    public ResponseEntity<List<Transaction>> transactionsCreateBulk(@RequestBody List<Transaction> transactions) {
+        // items are validated by the service, per index, instead of @Valid on the list
+        List<Transaction> newTransactions = transactionsService.createTransactions(transactions);
+        return ResponseEntity.ok().body(newTransactions);
+    }
+
+    @PreAuthorize("hasRole('user')")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobStatus> transactionsImport(@RequestParam("file") MultipartFile file,
+                                                              @RequestParam(required = false) String format,
+                                                              @RequestParam(required = false) String defaultCategory) {
+        ImportJobStatus job = statementImportService.submit(file, format, defaultCategory);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @PreAuthorize("hasRole('user')")
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobStatus> transactionsImportStatus(@PathVariable String jobId) {
+        ImportJobStatus job = statementImportService.getStatus(jobId);
+        return ResponseEntity.ok().body(job);
+    }
+
+    @PreAuthorize("hasRole('user')")
+    @PostMapping("/categories/validate")
+    public ResponseEntity<CategoryValidationResult> categoriesValidate(@RequestBody List<String> categories) {
+        CategoryValidationResult result = categoryService.validateAll(categories);
+        return ResponseEntity.ok().body(result);
+    }
+
     @PreAuthorize("hasRole('administrator')")
     @GetMapping()
-    public ResponseEntity<List<Transaction>> transactionsGetAll() {
-        List <Transaction> transactionList =  transactionsService.getAllTransactions();
-        return ResponseEntity.ok().body(transactionList);
+    public ResponseEntity<TransactionPage> transactionsGetAll(TransactionFilter filter,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit) {
+        TransactionPage page = transactionsService.getTransactionsPage(null, filter, cursor, limit);
+        return ResponseEntity.ok().body(page);
     }
 
     @PreAuthorize("hasRole('user') || hasRole('administrator')")
@@ -46,16 +104,40 @@ public class TransactionsController {
 
     @PreAuthorize("hasRole('user')")
     @GetMapping("/user")
-    public ResponseEntity<List<Transaction>> transactionsGetOfUser() {
-        List <Transaction> transactionList =  transactionsService.getAllTransactionsOfUser();
-        return ResponseEntity.ok().body(transactionList);
+    public ResponseEntity<TransactionPage> transactionsGetOfUser(TransactionFilter filter,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer limit,
+                                                                 WebRequest request) {
+        // ETags are per URL, so each cursor/filter combination revalidates on its own
+        String etag = dataVersionService.etag(UserUtil.getCurrentUserId());
+        return ConditionalResponses.okWithETag(request, etag,
+                () -> transactionsService.getTransactionsPageOfUser(filter, cursor, limit));
+    }
+
+    @PreAuthorize("hasRole('user')")
+    @GetMapping("/user/export")
+    public ResponseEntity<StreamingResponseBody> transactionsExportOfUser(TransactionFilter filter,
+                                                                          @RequestParam(required = false) String format) {
+        TransactionExportService.Format exportFormat = TransactionExportService.Format.fromParam(format);
+        // resolved on the request thread, the body is written on an async thread without the security context
+        String userId = UserUtil.getCurrentUserId();
+
+        StreamingResponseBody body = out -> transactionExportService.export(userId, filter, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions." + exportFormat.getExtension()).build().toString())
+                .body(body);
     }
 
     @PreAuthorize("hasRole('administrator')")
     @GetMapping("/user/{uid}")
-    public ResponseEntity<List<Transaction>> transactionsGetByUserID(@PathVariable String uid) {
-        List <Transaction> transactionList =  transactionsService.getTransactionByUserId(uid);
-        return ResponseEntity.ok().body(transactionList);
+    public ResponseEntity<TransactionPage> transactionsGetByUserID(@PathVariable String uid,
+                                                                   TransactionFilter filter,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limit) {
+        TransactionPage page = transactionsService.getTransactionsPage(uid, filter, cursor, limit);
+        return ResponseEntity.ok().body(page);
     }
 
     @PreAuthorize("hasRole('user')")
@@ -0,0 +1,10 @@
+package org.spring.pftsystem.entity.request;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class RefreshRequest {
+    private String refreshToken;
+}
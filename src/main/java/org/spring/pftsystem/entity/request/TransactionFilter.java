@@ -0,0 +1,16 @@
+package org.spring.pftsystem.entity.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Optional listing filters, bound from query parameters; from/to are inclusive ISO dates or date-times (a plain "to" date covers that day)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionFilter {
+    private String type;
+    private String category;
+    private String from;
+    private String to;
+}
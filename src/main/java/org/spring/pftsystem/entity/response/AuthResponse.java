@@ -9,4 +9,5 @@ import lombok.Getter;
 public class AuthResponse {
     private String message;
     private String token;
-}
\ No newline at end of file
+    private String refreshToken;
+}
@@ -0,0 +1,15 @@
+package org.spring.pftsystem.entity.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CategoryValidationResult {
+    private int checked;
+    private int invalidCount;
+    private List<String> invalidCategories;
+    private List<String> availableCategories;
+}
@@ -0,0 +1,23 @@
+package org.spring.pftsystem.entity.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Progress of a statement import, kept in Redis so any node can answer a poll
+@Data
+@NoArgsConstructor
+public class ImportJobStatus {
+    private String jobId;
+    private String userId;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private String format;
+    private long bytesTotal;
+    private long bytesRead;
+    private long rowsRead;
+    private long inserted;
+    private long duplicates;
+    private long invalid;
+    private String error;
+    private String startedAt;
+    private String finishedAt;
+}
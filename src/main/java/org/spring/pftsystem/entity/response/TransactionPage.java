@@ -0,0 +1,16 @@
+package org.spring.pftsystem.entity.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.spring.pftsystem.entity.schema.main.Transaction;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TransactionPage {
+    private List<Transaction> items;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor; // null on the last page
+}
@@ -1,5 +1,6 @@
 package org.spring.pftsystem.entity.schema.main;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 import org.spring.pftsystem.entity.schema.sub.RecurrenceDetails;
@@ -8,10 +9,12 @@ import org.spring.pftsystem.validations.ValidCurrency;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @Document(collection = "Transactions")
+// keyset paging indexes are ensured at startup (TransactionRepositoryImpl.ensurePagingIndexes)
 public class Transaction {
 
     @Id
@@ -55,6 +58,11 @@ public class Transaction {
     @NotNull
     private boolean notify;
 
-    private String transactionDate = java.time.LocalDateTime.now().toString();
-    private String lastUpdatedAt = java.time.LocalDateTime.now().toString();
+    // stored as BSON dates; older documents still holding strings are read through MongoConfig's listener until migrated
+    private LocalDateTime transactionDate = LocalDateTime.now();
+    private LocalDateTime lastUpdatedAt = LocalDateTime.now();
+
+    // Statement import fingerprint, unique per user (partial index, see TransactionRepositoryImpl)
+    @JsonIgnore
+    private String importKey;
 }
\ No newline at end of file
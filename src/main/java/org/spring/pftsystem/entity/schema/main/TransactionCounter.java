@@ -0,0 +1,29 @@
+package org.spring.pftsystem.entity.schema.main;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Number of transactions a user holds, maintained by TransactionCounterService
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "transaction_counters")
+public class TransactionCounter {
+    @Id
+    private String userId;
+
+    private long count;
+
+    // last reservation or adjustment, reconcile leaves recently moved counters alone
+    private Instant updatedAt;
+
+    public TransactionCounter(String userId, long count) {
+        this(userId, count, null);
+    }
+}
@@ -12,9 +12,10 @@ public class User {
     private String id;
     private String firstName;
     private String lastName;
-    private String email;
+    private String email; // unique index ensured at startup (UserRepositoryCustomImpl.ensureEmailIndex)
     private String password; // Stored as a hashed password
     private String role; // User, Admin
+    private int tokenVersion; // bumped to invalidate issued tokens
     private UserSettings settings = new UserSettings();
     private String timeStamp = java.time.LocalDateTime.now().toString();
 }
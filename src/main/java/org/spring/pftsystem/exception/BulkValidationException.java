@@ -0,0 +1,17 @@
+package org.spring.pftsystem.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// Constraint violations of a bulk request, each message prefixed with the item index
+@Getter
+public class BulkValidationException extends RuntimeException {
+
+    private final List<String> errors;
+
+    public BulkValidationException(List<String> errors) {
+        super("Validation failed for " + errors.size() + " field(s)");
+        this.errors = errors;
+    }
+}
@@ -50,6 +50,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(401).body(errorResponse);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Object> tooManyRequestsException(TooManyRequestsException ex) {
+        log.warning(Constants.EXCEPTION_ALERT + ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(429, ex.getMessage());
+        return ResponseEntity.status(429).header("Retry-After", "1").body(errorResponse);
+    }
+
     @ExceptionHandler(SecurityException.class)
     public ResponseEntity<Object> handleSecurityException(SecurityException ex) {
         log.warning(Constants.EXCEPTION_ALERT + ex.getMessage());
@@ -95,6 +102,13 @@ public class GlobalExceptionHandler {
 
     }
 
+    @ExceptionHandler(BulkValidationException.class)
+    public ResponseEntity<Object> handleBulkValidationException(BulkValidationException ex) {
+        ValidationErrors errorResponse = new ValidationErrors(400, ex.getErrors());
+        log.warning(Constants.EXCEPTION_ALERT + ex.getErrors());
+        return ResponseEntity.status(400).body(errorResponse);
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<Object> handleNotFoundException(NotFoundException ex) {
         log.warning(Constants.EXCEPTION_ALERT + ex.getMessage());
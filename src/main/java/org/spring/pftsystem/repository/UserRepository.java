@@ -1,12 +1,13 @@
 package org.spring.pftsystem.repository;
 import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.repository.customImp.UserRepositoryCustom;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
 }
 
@@ -1,11 +1,40 @@
 package org.spring.pftsystem.repository.customImp;
 
+import org.spring.pftsystem.entity.request.TransactionFilter;
 import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.utility.PageCursor;
 
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface TransactionRepositoryCustom {
     List<Transaction> findFilteredTransactions(String userId, String startDate, String endDate, List<String> categories, List<String> tags, List<String> types);
+
+    // userId null lists across all users; returns up to limit items after the cursor, newest first
+    List<Transaction> findPage(String userId, TransactionFilter filter, PageCursor after, int limit);
+
+    // Position to pass back as "after" for the page that follows this row
+    PageCursor cursorOf(Transaction last);
+
+    // Range [from, before) on transactionDate, userId null counts across all users
+    long countInDateRange(String userId, LocalDateTime from, LocalDateTime before);
+
+    // Range [from, before) on transactionDate for one user, type null returns every type
+    List<Transaction> findInDateRange(String userId, String type, LocalDateTime from, LocalDateTime before);
+
+    // Newest first from a Mongo cursor, for exports that must not materialize the whole result
+    Stream<Transaction> streamByUserId(String userId, TransactionFilter filter, int batchSize);
+
+    // One unordered bulk write, returns the number of inserted documents
+    int insertAll(List<Transaction> transactions);
+
+    // Deletes in one findAndRemove and returns the removed document, null when nothing matched
+    Transaction removeById(String id);
+
+    // The subset of importKeys already stored for the user, served by the user_import_key index
+    Set<String> findImportKeys(String userId, Collection<String> importKeys);
 }
 
@@ -1,13 +1,31 @@
 package org.spring.pftsystem.repository.customImp;
 
 import lombok.extern.java.Log;
+import org.bson.Document;
+import org.spring.pftsystem.entity.request.TransactionFilter;
 import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.exception.AppIllegalArgument;
+import org.spring.pftsystem.utility.PageCursor;
+import org.spring.pftsystem.utility.TransactionDates;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Log
 @Repository
@@ -15,6 +33,9 @@ public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
 
     private final MongoTemplate mongoTemplate;
 
+    // Open while transactions may still hold string dates (see TransactionDateMigrationService)
+    private volatile boolean legacyDates = true;
+
     public TransactionRepositoryImpl(MongoTemplate mongoTemplate) {
         this.mongoTemplate = mongoTemplate;
     }
@@ -24,8 +45,11 @@ public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
 
         query.addCriteria(Criteria.where("userId").is(userId));
 
-        // Date filter using string comparisons
-        query.addCriteria(Criteria.where("transactionDate").gte(startDate).lte(endDate));
+        // Date filter, both bounds inclusive
+        Criteria dates = dateRange(TransactionDates.lowerBound(startDate, "start"), TransactionDates.upperBoundExclusive(endDate, "end"));
+        if (dates != null) {
+            query.addCriteria(dates);
+        }
 
         // Type filter
         if (types != null && !types.isEmpty()) {
@@ -44,4 +68,186 @@ public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
 
         return mongoTemplate.find(query, Transaction.class);
     }
-}
\ No newline at end of file
+
+    public List<Transaction> findPage(String userId, TransactionFilter filter, PageCursor after, int limit) {
+        List<Criteria> criteria = filterCriteria(userId, filter);
+
+        // Keyset: strictly after the last item of the previous page in (transactionDate desc, _id desc) order
+        if (after != null) {
+            Object date = cursorDate(after);
+            List<Criteria> keyset = new ArrayList<>(List.of(
+                    Criteria.where("transactionDate").lt(date),
+                    new Criteria().andOperator(
+                            Criteria.where("transactionDate").is(date),
+                            Criteria.where("_id").lt(after.id()))));
+            // in descending order every string date comes after the BSON dates
+            if (legacyDates && date instanceof Date) {
+                keyset.add(Criteria.where("transactionDate").type(JsonSchemaObject.Type.STRING));
+            }
+            criteria.add(new Criteria().orOperator(keyset));
+        }
+
+        Query query = newestFirst(criteria);
+        query.limit(limit);
+
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    // Keyset position of a row: its BSON date, or while migrating the legacy string it is still stored with
+    public PageCursor cursorOf(Transaction last) {
+        if (legacyDates) {
+            Query query = new Query(Criteria.where("_id").is(last.getId()));
+            query.fields().include("transactionDate");
+            Document stored = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(Transaction.class));
+            if (stored != null && stored.get("transactionDate") instanceof String legacy) {
+                return new PageCursor(legacy, last.getId());
+            }
+        }
+        long millis = last.getTransactionDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new PageCursor(PageCursor.DATE_PREFIX + millis, last.getId());
+    }
+
+    // userId null counts across all users
+    public long countInDateRange(String userId, LocalDateTime from, LocalDateTime before) {
+        Query query = new Query(dateRange(from, before));
+        if (userId != null) {
+            query.addCriteria(Criteria.where("userId").is(userId));
+        }
+        return mongoTemplate.count(query, Transaction.class);
+    }
+
+    // type null returns every type
+    public List<Transaction> findInDateRange(String userId, String type, LocalDateTime from, LocalDateTime before) {
+        Query query = new Query(Criteria.where("userId").is(userId));
+        query.addCriteria(dateRange(from, before));
+        if (type != null) {
+            query.addCriteria(Criteria.where("type").is(type));
+        }
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    public Stream<Transaction> streamByUserId(String userId, TransactionFilter filter, int batchSize) {
+        Query query = newestFirst(filterCriteria(userId, filter));
+        query.cursorBatchSize(batchSize);
+
+        // Backed by an open server cursor, the caller must close the stream
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+
+    public int insertAll(List<Transaction> transactions) {
+        // Unordered: the server may apply the inserts in parallel and keeps going past a failed one
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        bulkOps.insert(transactions);
+        return bulkOps.execute().getInsertedCount();
+    }
+
+    public Transaction removeById(String id) {
+        return mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(id)), Transaction.class);
+    }
+
+    public Set<String> findImportKeys(String userId, Collection<String> importKeys) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("importKey").in(importKeys));
+        query.fields().include("importKey").exclude("_id");
+
+        Set<String> existing = new HashSet<>();
+        mongoTemplate.find(query, Transaction.class).forEach(transaction -> existing.add(transaction.getImportKey()));
+        return existing;
+    }
+
+    // Keyset paging order (transactionDate desc, _id desc), per user and across users for admins
+    public void ensurePagingIndexes() {
+        mongoTemplate.indexOps(Transaction.class).ensureIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("transactionDate", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("user_date_id"));
+        mongoTemplate.indexOps(Transaction.class).ensureIndex(new Index()
+                .on("transactionDate", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("date_id"));
+    }
+
+    // Partial, so transactions created through the API (no importKey) are not part of the unique constraint
+    public void ensureImportKeyIndex() {
+        mongoTemplate.indexOps(Transaction.class).ensureIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("importKey", Sort.Direction.ASC)
+                .named("user_import_key")
+                .unique()
+                .partial(PartialIndexFilter.of(Criteria.where("importKey").exists(true))));
+    }
+
+    private List<Criteria> filterCriteria(String userId, TransactionFilter filter) {
+        List<Criteria> criteria = new ArrayList<>();
+
+        if (userId != null) {
+            criteria.add(Criteria.where("userId").is(userId));
+        }
+
+        if (filter != null) {
+            if (filter.getType() != null && !filter.getType().isBlank()) {
+                criteria.add(Criteria.where("type").is(filter.getType()));
+            }
+            if (filter.getCategory() != null && !filter.getCategory().isBlank()) {
+                criteria.add(Criteria.where("category").is(filter.getCategory()));
+            }
+            Criteria dates = dateRange(TransactionDates.lowerBound(filter.getFrom(), "from"),
+                    TransactionDates.upperBoundExclusive(filter.getTo(), "to"));
+            if (dates != null) {
+                criteria.add(dates);
+            }
+        }
+        return criteria;
+    }
+
+    // Called once no transaction holds a string date, from then on range and keyset queries compare dates only
+    public void closeLegacyDateWindow() {
+        legacyDates = false;
+    }
+
+    public boolean isLegacyDateWindowOpen() {
+        return legacyDates;
+    }
+
+    // [from, before) compared as BSON dates, either bound optional; null when neither is set.
+    // While the window is open, string dates are matched by their ISO text as well: both branches use the date indexes.
+    private Criteria dateRange(LocalDateTime from, LocalDateTime before) {
+        if (from == null && before == null) {
+            return null;
+        }
+        Criteria dates = Criteria.where("transactionDate");
+        Criteria strings = Criteria.where("transactionDate");
+        if (from != null) {
+            dates.gte(from);
+            strings.gte(from.toString());
+        }
+        if (before != null) {
+            dates.lt(before);
+            strings.lt(before.toString());
+        }
+        return legacyDates ? new Criteria().orOperator(dates, strings) : dates;
+    }
+
+    // "@<epoch millis>" for a BSON date, anything else is a legacy string date
+    private static Object cursorDate(PageCursor cursor) {
+        String value = cursor.transactionDate();
+        if (value.startsWith(PageCursor.DATE_PREFIX)) {
+            try {
+                return new Date(Long.parseLong(value.substring(PageCursor.DATE_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                throw new AppIllegalArgument("Invalid cursor", 400);
+            }
+        }
+        return value;
+    }
+
+    // (transactionDate desc, _id desc) matches the user_date_id / date_id indexes
+    private Query newestFirst(List<Criteria> criteria) {
+        Query query = new Query();
+        if (!criteria.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(criteria));
+        }
+        query.with(Sort.by(Sort.Order.desc("transactionDate"), Sort.Order.desc("_id")));
+        return query;
+    }
+}
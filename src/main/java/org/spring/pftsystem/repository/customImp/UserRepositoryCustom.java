@@ -0,0 +1,20 @@
+package org.spring.pftsystem.repository.customImp;
+
+import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.entity.schema.sub.UserSettings;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    // Served from the node-local user cache, may be up to user-cache.max-staleness-seconds old
+    Optional<User> findCachedById(String id);
+
+    // $set of the settings alone, a stale copy of the user can never write back role or tokenVersion; false when no user matched
+    boolean updateSettings(String id, UserSettings settings);
+
+    // $set of the profile fields alone (see updateSettings); false when no user matched
+    boolean updateProfile(String id, String email, String firstName, String lastName);
+
+    // Unique email index, kept non-unique while duplicate emails exist
+    void ensureEmailIndex();
+}
@@ -0,0 +1,81 @@
+package org.spring.pftsystem.repository.customImp;
+
+import lombok.extern.java.Log;
+import org.bson.Document;
+import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.entity.schema.sub.UserSettings;
+import org.spring.pftsystem.services.UserCacheService;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+@Log
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    static final String EMAIL_UNIQUE_INDEX = "email_unique";
+    static final String EMAIL_LOOKUP_INDEX = "email_lookup";
+
+    private final UserCacheService userCacheService;
+    private final MongoTemplate mongoTemplate;
+
+    public UserRepositoryCustomImpl(UserCacheService userCacheService, MongoTemplate mongoTemplate) {
+        this.userCacheService = userCacheService;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<User> findCachedById(String id) {
+        return userCacheService.findById(id);
+    }
+
+    @Override
+    public boolean updateSettings(String id, UserSettings settings) {
+        return mongoTemplate.updateFirst(byId(id), new Update().set("settings", settings), User.class).getMatchedCount() > 0;
+    }
+
+    // timeStamp is cleared as the former full-document save did
+    @Override
+    public boolean updateProfile(String id, String email, String firstName, String lastName) {
+        Update update = new Update()
+                .set("email", email)
+                .set("firstName", firstName)
+                .set("lastName", lastName)
+                .unset("timeStamp");
+        return mongoTemplate.updateFirst(byId(id), update, User.class).getMatchedCount() > 0;
+    }
+
+    private static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+
+    // Existing duplicates would make a unique index fail: they get a plain lookup index until resolved
+    @Override
+    public void ensureEmailIndex() {
+        IndexOperations indexOps = mongoTemplate.indexOps(User.class);
+        List<Document> duplicates = mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.group("email").count().as("count"),
+                        Aggregation.match(Criteria.where("count").gt(1)),
+                        Aggregation.limit(5)),
+                User.class, Document.class).getMappedResults();
+
+        if (!duplicates.isEmpty()) {
+            log.severe("Duplicate user emails " + duplicates.stream().map(d -> d.get("_id")).toList()
+                    + ", email index stays non-unique until they are resolved");
+            indexOps.ensureIndex(new Index().on("email", Sort.Direction.ASC).named(EMAIL_LOOKUP_INDEX));
+            return;
+        }
+        // same key pattern as the lookup index, which has to go first
+        if (indexOps.getIndexInfo().stream().anyMatch(info -> EMAIL_LOOKUP_INDEX.equals(info.getName()))) {
+            indexOps.dropIndex(EMAIL_LOOKUP_INDEX);
+        }
+        indexOps.ensureIndex(new Index().on("email", Sort.Direction.ASC).named(EMAIL_UNIQUE_INDEX).unique());
+    }
+}
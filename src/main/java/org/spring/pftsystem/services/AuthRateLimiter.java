@@ -0,0 +1,183 @@
+package org.spring.pftsystem.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.java.Log;
+import org.spring.pftsystem.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Token-bucket limits for the public /api/auth endpoints, per client IP and per email.
+ * Every request takes a token from its IP bucket; the email bucket is only charged by failed attempts
+ * and checked without charging, so requests naming someone else's email cannot lock that user out.
+ * The shared bucket lives in Redis and is updated by one atomic script. A node-local bucket with
+ * the same limit sits in front of it: a client that is already over the limit here is over it
+ * cluster-wide too, so abusive bursts are rejected without a Redis round trip.
+ */
+@Log
+@Service
+public class AuthRateLimiter {
+
+    static final String RATE_PREFIX = "RATE_";
+    static final String REJECTED_MESSAGE = "Too many requests, please retry later";
+
+    // KEYS: bucket | ARGV: capacity, refill tokens per millisecond, 1 to take a token or 0 to only look
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local refillPerMs = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(bucket[1]) or capacity
+            local ts = tonumber(bucket[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * refillPerMs)
+            local allowed = 0
+            if tokens >= 1 then
+                allowed = 1
+            end
+            if ARGV[3] == '1' then
+                if allowed == 1 then
+                    tokens = tokens - 1
+                end
+                redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+                redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refillPerMs))
+            end
+            return allowed
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Limit ipLimit;
+    private final Limit emailLimit;
+    private final Cache<String, LocalBucket> localBuckets;
+
+    public AuthRateLimiter(StringRedisTemplate redisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${auth.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${auth.rate-limit.ip.capacity:20}") int ipCapacity,
+                           @Value("${auth.rate-limit.ip.refill-per-minute:20}") int ipRefillPerMinute,
+                           @Value("${auth.rate-limit.email.capacity:5}") int emailCapacity,
+                           @Value("${auth.rate-limit.email.refill-per-minute:5}") int emailRefillPerMinute,
+                           @Value("${auth.rate-limit.local.max-size:100000}") long localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.ipLimit = new Limit("ip", ipCapacity, ipRefillPerMinute / 60_000d);
+        this.emailLimit = new Limit("email", emailCapacity, emailRefillPerMinute / 60_000d);
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterAccess(Duration.ofMillis(Math.max(ipLimit.refillMillis(), emailLimit.refillMillis())))
+                .build();
+    }
+
+    // Take one token from the IP bucket and, when given, check the email bucket; 429 when either is empty
+    public void check(String clientIp, String email) {
+        if (!enabled) {
+            return;
+        }
+        acquire(ipLimit, clientIp, true);
+        if (email != null && !email.isBlank()) {
+            acquire(emailLimit, normalize(email), false);
+        }
+    }
+
+    // Charge the email bucket for a failed attempt (wrong credentials, email already registered)
+    public void recordFailure(String email) {
+        if (!enabled || email == null || email.isBlank()) {
+            return;
+        }
+        String key = key(emailLimit, normalize(email));
+        localBuckets.get(key, k -> new LocalBucket(emailLimit)).tryConsume();
+        try {
+            redisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(key),
+                    String.valueOf(emailLimit.capacity()), String.valueOf(emailLimit.refillPerMs()), "1");
+        } catch (Exception e) {
+            log.warning("Failed attempt not recorded, Redis unavailable : " + e.getMessage());
+        }
+    }
+
+    private void acquire(Limit limit, String id, boolean consume) {
+        String key = key(limit, id);
+
+        LocalBucket localBucket = localBuckets.get(key, k -> new LocalBucket(limit));
+        if (!(consume ? localBucket.tryConsume() : localBucket.hasToken())) {
+            reject(limit, "local");
+        }
+
+        Long allowed;
+        try {
+            allowed = redisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(key),
+                    String.valueOf(limit.capacity()), String.valueOf(limit.refillPerMs()), consume ? "1" : "0");
+        } catch (Exception e) {
+            // fail open, the local bucket still caps what this node accepts
+            log.warning("Rate limit check skipped, Redis unavailable : " + e.getMessage());
+            return;
+        }
+        if (allowed != null && allowed == 0) {
+            reject(limit, "redis");
+        }
+    }
+
+    private static String key(Limit limit, String id) {
+        return RATE_PREFIX + limit.scope().toUpperCase(Locale.ROOT) + "_" + id;
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void reject(Limit limit, String source) {
+        meterRegistry.counter("auth.ratelimit.rejected", "scope", limit.scope(), "source", source).increment();
+        throw new TooManyRequestsException(REJECTED_MESSAGE);
+    }
+
+    private record Limit(String scope, int capacity, double refillPerMs) {
+
+        long refillMillis() {
+            return (long) Math.ceil(capacity / refillPerMs);
+        }
+    }
+
+    private static final class LocalBucket {
+
+        private final Limit limit;
+        private double tokens;
+        private long updatedAt;
+
+        private LocalBucket(Limit limit) {
+            this.limit = limit;
+            this.tokens = limit.capacity();
+            this.updatedAt = System.currentTimeMillis();
+        }
+
+        synchronized boolean tryConsume() {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized boolean hasToken() {
+            refill();
+            return tokens >= 1;
+        }
+
+        private void refill() {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(limit.capacity(), tokens + (now - updatedAt) * limit.refillPerMs());
+            updatedAt = now;
+        }
+    }
+}
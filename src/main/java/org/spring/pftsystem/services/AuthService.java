@@ -1,41 +1,65 @@
 package org.spring.pftsystem.services;
 
+import io.jsonwebtoken.Claims;
 import io.lettuce.core.RedisException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.java.Log;
 import org.spring.pftsystem.constants.Constants;
+import org.spring.pftsystem.entity.response.AuthResponse;
 import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.exception.UserNotFoundException;
 import org.spring.pftsystem.repository.UserRepository;
 import org.spring.pftsystem.utility.JwtUtil;
 import org.spring.pftsystem.utility.UserUtil;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import javax.security.auth.login.CredentialNotFoundException;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.UUID;
 
 @Service
 @Log
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
-    private final StringRedisTemplate redisTemplate;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
-    //StringRedisTemplate redisTemplate = new StringRedisTemplate();
+    private final TokenCacheService tokenCacheService;
+    private final RefreshTokenService refreshTokenService;
+    private final SessionService sessionService;
+    private final TokenVersionService tokenVersionService;
+    private final UserCacheService userCacheService;
+
+    // Revocation by token epoch instead of the Redis session index
+    @Value("${auth.stateless:false}")
+    private boolean stateless;
 
     //constructor
-    public AuthService(UserRepository userRepository, StringRedisTemplate redisTemplate, JwtUtil jwtUtil) {
+    public AuthService(UserRepository userRepository, JwtUtil jwtUtil, TokenCacheService tokenCacheService, PasswordHashingService passwordHashingService, RefreshTokenService refreshTokenService, SessionService sessionService, TokenVersionService tokenVersionService, UserCacheService userCacheService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
-        this.redisTemplate = redisTemplate;
+        this.passwordHashingService = passwordHashingService;
         this.jwtUtil = jwtUtil;
+        this.tokenCacheService = tokenCacheService;
+        this.refreshTokenService = refreshTokenService;
+        this.sessionService = sessionService;
+        this.tokenVersionService = tokenVersionService;
+        this.userCacheService = userCacheService;
     }
 
 
+    @PostConstruct
+    void ensureIndexes() {
+        try {
+            userRepository.ensureEmailIndex(); // login and register look users up by email
+        } catch (Exception e) {
+            log.warning("Could not ensure the user email index: " + e.getMessage());
+        }
+    }
+
     public String register(String email, String password) {
         return createUser(email, password, "user");
     }
@@ -44,7 +68,7 @@ public class AuthService {
         return createUser(email, password , "administrator");
     }
 
-    public String login(String email, String password) throws CredentialNotFoundException, IllegalArgumentException {
+    public AuthResponse login(String email, String password) throws CredentialNotFoundException, IllegalArgumentException {
         // Validate input
         if (email == null || password == null || email.isEmpty() || password.isEmpty()) {
             throw new IllegalArgumentException("Email and password must not be empty");
@@ -52,26 +76,89 @@ public class AuthService {
 
         User user = userRepository.findByEmail(email).orElseThrow(() -> new CredentialNotFoundException("Invalid credentials"));
 
-        // Password Validation
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        // Password Validation (on the bounded hashing pool, 429 when it is saturated)
+        if (!passwordHashingService.matches(password, user.getPassword())) {
             log.info("Invalid Credentials");
             throw new CredentialNotFoundException("Invalid credentials");
         }
 
         log.info("Credentials found, Generating token...");
-        String token = generateJwtToken(user);
-
+        String tokenId = UUID.randomUUID().toString();
+        Date expiresAt = jwtUtil.nextExpiry();
 
         log.info("Caching Token...");
-        try{
-            redisTemplate.opsForValue().set("TOKEN_"+ user.getId() , token, 1, TimeUnit.HOURS);
-        }catch(Exception e){
-            throw new RedisException(e.getMessage());
+        String token;
+        String refreshToken;
+        if (stateless) {
+            // nothing to index, the token epoch revokes; refresh tokens only while Redis is reachable
+            RefreshTokenService.Issued issued = null;
+            try{
+                issued = refreshTokenService.issue(user.getId(), user.getRole(), user.getTokenVersion(), tokenId);
+            }catch(Exception e){
+                log.warning("Refresh token not issued, Redis unavailable : " + e.getMessage());
+            }
+            token = generateJwtToken(user.getId(), user.getRole(), user.getTokenVersion(), tokenId, issued == null ? null : issued.family(), expiresAt);
+            refreshToken = issued == null ? null : issued.refreshToken();
+        } else {
+            try{
+                RefreshTokenService.Issued issued = refreshTokenService.issue(user.getId(), user.getRole(), user.getTokenVersion(), tokenId);
+                token = generateJwtToken(user.getId(), user.getRole(), user.getTokenVersion(), tokenId, issued.family(), expiresAt);
+                sessionService.register(user.getId(), tokenId, expiresAt, null); // new device, other sessions stay valid
+                refreshToken = issued.refreshToken();
+            }catch(Exception e){
+                throw new RedisException(e.getMessage());
+            }
         }
         log.info("User Logged in successfully");
-        return token;
+        return new AuthResponse("Login Success", token, refreshToken);
+    }
+
+    // Renew the access token without the password, costs one Redis script and one signature
+    public AuthResponse refresh(String refreshToken) throws CredentialNotFoundException {
+        String tokenId = UUID.randomUUID().toString();
+        RefreshTokenService.Rotation rotation;
+        try {
+            rotation = refreshTokenService.rotate(refreshToken, tokenId);
+        } catch (RefreshTokenService.ReuseDetected e) {
+            revokeReusedSession(e.getUserId(), e.getTokenId());
+            throw e;
+        }
+
+        // role and version come from the user, a version bump since sign-in (role change, logout) ends the family
+        User user = userRepository.findById(rotation.userId()).orElse(null);
+        if (user == null || user.getTokenVersion() != rotation.tokenVersion()) {
+            refreshTokenService.revokeFamily(rotation.userId(), rotation.family());
+            log.info("Refresh rejected, token version outdated for UID : " + rotation.userId());
+            throw new CredentialNotFoundException("Refresh token revoked");
+        }
+
+        Date expiresAt = jwtUtil.nextExpiry();
+        String token = generateJwtToken(user.getId(), user.getRole(), user.getTokenVersion(), tokenId, rotation.family(), expiresAt);
+
+        if (!stateless) {
+            try{
+                sessionService.register(rotation.userId(), tokenId, expiresAt, rotation.previousTokenId()); // replaces the device's previous entry
+            }catch(Exception e){
+                throw new RedisException(e.getMessage());
+            }
+        }
+        log.info("Token refreshed for UID : " + rotation.userId());
+        return new AuthResponse("Token Refreshed", token, rotation.refreshToken());
+    }
+
+    // Change a user's role; bumps the token version so tokens carrying the old role stop working
+    public void changeRole(String userId, String role) {
+        if (!"user".equals(role) && !"administrator".equals(role)) {
+            throw new IllegalArgumentException("Role must be user or administrator");
+        }
+        if (!tokenVersionService.changeRole(userId, role)) {
+            throw new UserNotFoundException();
+        }
+        userCacheService.invalidate(userId);
+        log.info("Role changed to " + role + ", tokens revoked for UID : " + userId);
     }
 
+    // Logout of the device the token belongs to
     public boolean logout(String token) {
         if (token == null || !token.startsWith("Bearer ")) {
             throw new IllegalArgumentException("Token Null or Invalid");
@@ -80,7 +167,16 @@ public class AuthService {
         try{
             User userFromContext = UserUtil.getUserFromContext(userRepository);
             String id = userFromContext.getId();//get id from userContext
-            redisTemplate.delete("TOKEN_" + id); //delete cached token
+            if (stateless) {
+                return revokeByEpoch(id); // an epoch covers every device of the user
+            }
+            Claims claims = jwtUtil.parseClaims(jwtToken);
+            sessionService.revoke(id, claims.getId()); // remove this session from the index
+            tokenCacheService.invalidateSession(id, claims.getId()); // drop node-local copies cluster-wide
+            String family = claims.get("fam", String.class);
+            if (family != null) {
+                refreshTokenService.revokeFamily(id, family); // no silent renewal after logout
+            }
             SecurityContextHolder.clearContext(); // clear security context (for good measures)
             log.info("User logged out successfully");
             return true;
@@ -89,11 +185,57 @@ public class AuthService {
         }
     }
 
-    private String generateJwtToken(User user) {
+    // Logout of every device of the current user
+    public boolean logoutAll() {
+        try{
+            String id = UserUtil.getUserFromContext(userRepository).getId();
+            if (stateless) {
+                return revokeByEpoch(id);
+            }
+            sessionService.revokeAll(id);
+            tokenCacheService.invalidate(id);
+            refreshTokenService.revokeAll(id);
+            SecurityContextHolder.clearContext();
+            log.info("User logged out of all devices, UID : " + id);
+            return true;
+        }catch(Exception e){
+            throw new RedisException(e.getMessage());
+        }
+    }
+
+    // Stateless logout: bump the token epoch, Redis cleanup is best effort
+    private boolean revokeByEpoch(String id) {
+        tokenVersionService.bumpVersion(id);
+        try{
+            refreshTokenService.revokeAll(id);
+        }catch(Exception e){
+            log.warning("Refresh tokens not revoked, Redis unavailable : " + e.getMessage());
+        }
+        SecurityContextHolder.clearContext();
+        log.info("Token epoch bumped, user logged out of all devices, UID : " + id);
+        return true;
+    }
+
+    // The family's access token may be the stolen one: end that session too (stateless: every token of the user)
+    private void revokeReusedSession(String userId, String tokenId) {
+        if (stateless) {
+            tokenVersionService.bumpVersion(userId);
+            return;
+        }
+        if (tokenId != null && !tokenId.isEmpty()) {
+            sessionService.revoke(userId, tokenId);
+            tokenCacheService.invalidateSession(userId, tokenId);
+        }
+    }
+
+    private String generateJwtToken(String id, String role, int tokenVersion, String tokenId, String family, Date expiresAt) {
         Map<String, Object> claims = new HashMap<>();
         //claims.put("email", user.getEmail());
-        claims.put("role", user.getRole());
-        return jwtUtil.generateToken(user.getId(), claims);
+        claims.put(Claims.ID, tokenId); // session index key
+        claims.put("fam", family); // refresh token family of this device
+        claims.put("role", role);
+        claims.put("ver", tokenVersion);
+        return jwtUtil.generateToken(id, claims, expiresAt);
     }
 
     private String createUser(String email, String password, String type)
@@ -108,9 +250,10 @@ public class AuthService {
         }
         User user = new User();
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(password)); // Hash password
+        user.setPassword(passwordHashingService.encode(password)); // Hash password
         user.setRole(type);
         userRepository.save(user);
+        userCacheService.invalidate(user.getId()); // no node may keep an earlier lookup of this id
 
         if (type.equalsIgnoreCase("admin")) {
             return "Admin Successfully Registered";
@@ -1,38 +1,51 @@
 package org.spring.pftsystem.services;
 
+import com.mongodb.client.result.UpdateResult;
 import lombok.extern.java.Log;
+import org.bson.Document;
+import org.spring.pftsystem.constants.Constants;
 import org.spring.pftsystem.entity.schema.main.Budget;
 import org.spring.pftsystem.entity.schema.main.Transaction;
 import org.spring.pftsystem.entity.schema.main.User;
 import org.spring.pftsystem.exception.AppIllegalArgument;
 import org.spring.pftsystem.exception.NotFoundException;
 import org.spring.pftsystem.repository.BudgetRepository;
-import org.spring.pftsystem.repository.TransactionsRepo;
 import org.spring.pftsystem.repository.UserRepository;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
 import org.spring.pftsystem.utility.UserUtil;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
 @Log
 @Service
 public class BudgetService {
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
     private static final float BUDGET_WARNING_THRESHOLD = 0.8f; // 80% of budget - to do : move to system settings or user settings
 
     private final BudgetRepository budgetRepository;
     private final UserRepository userRepository;
-    private final TransactionsRepo transactionsRepo;
+    private final TransactionRepositoryImpl transactionRepository;
+    private final DataVersionService dataVersionService;
+    private final MongoTemplate mongoTemplate;
 
-    public BudgetService(BudgetRepository budgetRepository, UserRepository userRepository, TransactionsRepo transactionsRepo) {
+    public BudgetService(BudgetRepository budgetRepository, UserRepository userRepository, TransactionRepositoryImpl transactionRepository, DataVersionService dataVersionService, MongoTemplate mongoTemplate) {
         this.budgetRepository = budgetRepository;
         this.userRepository = userRepository;
-        this.transactionsRepo = transactionsRepo;
+        this.transactionRepository = transactionRepository;
+        this.dataVersionService = dataVersionService;
+        this.mongoTemplate = mongoTemplate;
     }
 
+    @CacheEvict(cacheNames = Constants.BUDGET_OF_USER_CACHE, key = "T(org.spring.pftsystem.utility.UserUtil).getCurrentUserId()")
     public Budget createBudget(Budget budget) {
         User user = UserUtil.getUserFromContext(userRepository);
 
@@ -47,13 +60,17 @@ public class BudgetService {
         validateBudget(budget, user);
 
         // Save and return the new budget
-        return budgetRepository.save(budget);
+        Budget savedBudget = budgetRepository.save(budget);
+        dataVersionService.bump(user.getId());
+        return savedBudget;
     }
 
     public List<Budget> getAllBudgets() {
         return budgetRepository.findAll();
     }
 
+    // Keyed by the user id from the security context, a missing budget (404) is not cached
+    @Cacheable(cacheNames = Constants.BUDGET_OF_USER_CACHE, key = "T(org.spring.pftsystem.utility.UserUtil).getCurrentUserId()")
     public Budget getBudgetForUser() {
         User user = UserUtil.getUserFromContext(userRepository);
         Optional<Budget> existingBudget = budgetRepository.findByUserID(user.getId());
@@ -63,6 +80,7 @@ public class BudgetService {
         return existingBudget.get();
     }
 
+    @CacheEvict(cacheNames = Constants.BUDGET_OF_USER_CACHE, key = "#result.userID")
     public Budget updateBudget(String id, Budget updatedBudget) {
 
         Optional<Budget> originalBudget = budgetRepository.findById(id);
@@ -82,14 +100,21 @@ public class BudgetService {
         updatedBudget.setUserID(user.getId());
         validateBudget(updatedBudget, user);
 
-        return budgetRepository.save(updatedBudget);
+        Budget savedBudget = budgetRepository.save(updatedBudget);
+        dataVersionService.bump(savedBudget.getUserID());
+        if (!savedBudget.getUserID().equals(originalBudget.get().getUserID())) {
+            dataVersionService.bump(originalBudget.get().getUserID()); // updated by an administrator
+        }
+        return savedBudget;
     }
 
+    // The owner is only known after the lookup, deletes are rare
+    @CacheEvict(cacheNames = Constants.BUDGET_OF_USER_CACHE, allEntries = true)
     public void deleteBudget(String id) {
-        if (!budgetRepository.existsById(id)) {
-            throw new NotFoundException("Budget not found with ID: " + id);
-        }
+        Budget budget = budgetRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Budget not found with ID: " + id));
         budgetRepository.deleteById(id);
+        dataVersionService.bump(budget.getUserID());
     }
 
     public Optional<Budget> getBudgetById(String id) {
@@ -112,6 +137,7 @@ public class BudgetService {
     /**
      * Update all budgets with current expenditure and set warning flags
      */
+    @CacheEvict(cacheNames = Constants.BUDGET_OF_USER_CACHE, allEntries = true)
     public void updateAllBudgets() {
         log.info("Updating all budgets");
 
@@ -129,6 +155,7 @@ public class BudgetService {
                 budget.setWarning(shouldWarn);
 
                 budgetRepository.save(budget);
+                dataVersionService.bump(budget.getUserID());
                 updatedCount++;
             } catch (Exception e) {
                 log.severe("Error updating budget {}: {}" + budget.getId() + " " + e.getMessage());
@@ -141,6 +168,7 @@ public class BudgetService {
     /**
      * Calculate current month's expenditure for a user in specified currency
      */
+    @CacheEvict(cacheNames = Constants.BUDGET_OF_USER_CACHE, key = "#userId")
     public void updateBudgetForUser(String userId) {
         Optional<Budget> budgetOpt = budgetRepository.findByUserID(userId);
         if (budgetOpt.isPresent()) {
@@ -153,25 +181,87 @@ public class BudgetService {
             budget.setWarning(shouldWarn);
             log.info("User Budget updated");
             budgetRepository.save(budget);
+            dataVersionService.bump(userId);
         }
     }
 
-    private float calculateCurrentMonthExpenditure(String userId, String currency) {
-        // Get current month's start and end dates
+    /**
+     * Applies what one transaction write changes in the current month's expenditure, instead of
+     * re-summing the month. before/after are the transaction as stored before and after the write,
+     * null on create and delete. Only this month's expenses count, and the currency is compared with
+     * the budget's own inside a single pipeline update, so neither the budget nor other transactions
+     * are read. A failed update is only logged: the transaction is already stored and the daily full
+     * recompute (updateAllBudgets) corrects any drift.
+     */
+    @CacheEvict(cacheNames = Constants.BUDGET_OF_USER_CACHE, key = "#userId")
+    public void applyExpenseDelta(String userId, Transaction before, Transaction after) {
         YearMonth currentMonth = YearMonth.now();
-        LocalDate firstDay = currentMonth.atDay(1);
-        LocalDate lastDay = currentMonth.atEndOfMonth();
+        double removed = currentMonthExpense(before, currentMonth);
+        double added = currentMonthExpense(after, currentMonth);
+        if (removed == 0 && added == 0) {
+            return;
+        }
+
+        // $inc evaluated against the stored document: each side counts only if its currency is the budget's
+        Document expenditure = new Document("$max", List.of(0, new Document("$add", List.of(
+                "$currentExpenditure",
+                inBudgetCurrency(after, added),
+                inBudgetCurrency(before, -removed)))));
+        // second stage sees the new expenditure
+        Document warning = new Document("$and", List.of(
+                new Document("$gt", List.of("$monthlyLimit", 0)),
+                new Document("$gte", List.of("$currentExpenditure",
+                        new Document("$multiply", List.of((double) BUDGET_WARNING_THRESHOLD, "$monthlyLimit"))))));
+        AggregationUpdate update = AggregationUpdate.from(List.of(
+                setStage("currentExpenditure", expenditure),
+                setStage("warning", warning)));
 
-        String startDate = firstDay.atStartOfDay().format(DATE_FORMATTER);
-        String endDate = lastDay.atTime(23, 59, 59).format(DATE_FORMATTER);
+        try {
+            UpdateResult result = mongoTemplate.updateFirst(new Query(Criteria.where("userID").is(userId)), update, Budget.class);
+            if (result.getModifiedCount() > 0) {
+                dataVersionService.bump(userId);
+            }
+        } catch (RuntimeException e) {
+            log.warning("Budget delta for user " + userId + " not applied, left to the daily recompute: " + e.getMessage());
+        }
+    }
+
+    // The amount a transaction adds to this month's expenses, before the currency check
+    private static double currentMonthExpense(Transaction transaction, YearMonth currentMonth) {
+        if (transaction == null || transaction.getAmount() == null || !"Expense".equals(transaction.getType())) {
+            return 0;
+        }
+        LocalDateTime date = transaction.getTransactionDate();
+        return date != null && YearMonth.from(date).equals(currentMonth) ? transaction.getAmount() : 0;
+    }
+
+    private static Object inBudgetCurrency(Transaction transaction, double amount) {
+        if (amount == 0) {
+            return 0;
+        }
+        // $literal: a currency value is data, never a field path or operator
+        return new Document("$cond", List.of(
+                new Document("$eq", List.of("$currency", new Document("$literal", transaction.getCurrency()))),
+                amount,
+                0));
+    }
+
+    private static AggregationOperation setStage(String field, Object value) {
+        return context -> new Document("$set", new Document(field, value));
+    }
+
+    private float calculateCurrentMonthExpenditure(String userId, String currency) {
+        // Current month as [first day, first day of next month)
+        YearMonth currentMonth = YearMonth.now();
+        LocalDateTime start = currentMonth.atDay(1).atStartOfDay();
+        LocalDateTime end = currentMonth.plusMonths(1).atDay(1).atStartOfDay();
 
-        // Get all transactions for this month
-        List<Transaction> transactions = transactionsRepo.findByUserIdAndTransactionDateBetween(
-                userId, startDate, endDate);
+        // Get this month's expenses
+        List<Transaction> transactions = transactionRepository.findInDateRange(userId, "Expense", start, end);
 
-        // Sum up all expenses (filter by type and currency)
+        // Sum up the expenses in the budget currency
         return (float) transactions.stream()
-                .filter(t -> "Expense".equals(t.getType()) && currency.equals(t.getCurrency()))
+                .filter(t -> currency.equals(t.getCurrency()))
                 .mapToDouble(Transaction::getAmount)
                 .sum();
     }
@@ -0,0 +1,46 @@
+package org.spring.pftsystem.services;
+
+import lombok.extern.java.Log;
+import org.spring.pftsystem.entity.response.CategoryValidationResult;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+@Service
+@Log
+public class CategoryService {
+
+    private final SystemSettingsService systemSettingsService;
+
+    public CategoryService(SystemSettingsService systemSettingsService) {
+        this.systemSettingsService = systemSettingsService;
+    }
+
+    public boolean isValid(String category) {
+        return systemSettingsService.current().isValidCategory(category);
+    }
+
+    // The configured name to store for a category, null when it is not configured
+    public String canonicalName(String category) {
+        return systemSettingsService.current().canonicalCategory(category);
+    }
+
+    // checks a whole batch against one snapshot so a concurrent settings update cannot split the result
+    public CategoryValidationResult validateAll(Collection<String> categories) {
+        SystemSettingsService.Snapshot settings = systemSettingsService.current();
+        Set<String> invalid = new LinkedHashSet<>(); // distinct, in input order
+
+        int invalidCount = 0;
+        for (String category : categories) {
+            if (!settings.isValidCategory(category)) {
+                invalidCount++;
+                invalid.add(category);
+            }
+        }
+
+        return new CategoryValidationResult(categories.size(), invalidCount, new ArrayList<>(invalid), settings.categories());
+    }
+}
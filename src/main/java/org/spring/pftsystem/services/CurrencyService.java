@@ -1,5 +1,6 @@
 package org.spring.pftsystem.services;
 
+import org.spring.pftsystem.utility.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -19,8 +20,19 @@ public class CurrencyService {
     private String API_KEY;
 
     private final RestTemplate restTemplate = new RestTemplate();
+    private final SingleFlight singleFlight;
+
+    public CurrencyService(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
 
     public Map<String, Object> convertCurrency(String from, String to, double amount) {
+        // Same pair and amount requested concurrently (any user) -> one call to the exchange API
+        SingleFlight.Key key = new SingleFlight.Key("", "currency.convert", from + ":" + to + ":" + amount);
+        return singleFlight.execute(key, () -> fetchConversion(from, to, amount));
+    }
+
+    private Map<String, Object> fetchConversion(String from, String to, double amount) {
         String url = UriComponentsBuilder.fromUriString(API_URL)
                 .queryParam("api_key", API_KEY)
                 .queryParam("from", from)
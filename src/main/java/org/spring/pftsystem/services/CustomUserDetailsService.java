@@ -3,6 +3,7 @@ package org.spring.pftsystem.services;
 import lombok.extern.java.Log;
 import org.spring.pftsystem.entity.schema.main.User;
 import org.spring.pftsystem.repository.UserRepository;
+import org.spring.pftsystem.utility.CurrentUser;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -20,8 +21,9 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String id) throws UsernameNotFoundException {
-        User user = userRepository.findById(id)
+        User user = userRepository.findCachedById(id) // near cache, no Mongo read for recently seen users
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        CurrentUser.prime(user); // reused by UserUtil for the rest of the request
 
         return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getId()) // Set UserID as the username
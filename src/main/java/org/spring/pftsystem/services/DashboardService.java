@@ -1,6 +1,7 @@
 package org.spring.pftsystem.services;
 
 import lombok.extern.java.Log;
+import org.spring.pftsystem.constants.Constants;
 import org.spring.pftsystem.entity.response.DashboardAdmin;
 import org.spring.pftsystem.entity.response.DashboardUser;
 import org.spring.pftsystem.entity.response.TransactionsSummary;
@@ -12,12 +13,15 @@ import org.spring.pftsystem.repository.BudgetRepository;
 import org.spring.pftsystem.repository.GoalRepository;
 import org.spring.pftsystem.repository.TransactionsRepo;
 import org.spring.pftsystem.repository.UserRepository;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.SingleFlight;
 import org.spring.pftsystem.utility.UserUtil;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,42 +31,56 @@ public class DashboardService {
 
     private final UserRepository userRepository;
     private final TransactionsRepo transactionsRepo;
+    private final TransactionRepositoryImpl transactionRepository;
     private final BudgetRepository budgetRepository;
     private final GoalRepository goalRepository;
     private final SystemUsageTracker systemUsageTracker;
+    private final SingleFlight singleFlight;
+    private final DataVersionService dataVersionService;
+    private final CacheManager cacheManager;
 
-    public DashboardService(UserRepository userRepository, TransactionsRepo transactionsRepo, BudgetRepository budgetRepository, GoalRepository goalRepository, SystemUsageTracker systemUsageTracker) {
+    public DashboardService(UserRepository userRepository, TransactionsRepo transactionsRepo, TransactionRepositoryImpl transactionRepository, BudgetRepository budgetRepository, GoalRepository goalRepository, SystemUsageTracker systemUsageTracker, SingleFlight singleFlight, DataVersionService dataVersionService, CacheManager cacheManager) {
         this.userRepository = userRepository;
         this.transactionsRepo = transactionsRepo;
+        this.transactionRepository = transactionRepository;
         this.budgetRepository = budgetRepository;
         this.goalRepository = goalRepository;
         this.systemUsageTracker = systemUsageTracker;
+        this.singleFlight = singleFlight;
+        this.dataVersionService = dataVersionService;
+        this.cacheManager = cacheManager;
     }
 
     public DashboardUser getDashboardUserData() {
         User user = UserUtil.getUserFromContext(userRepository);
         log.info("User: " + user.toString());
 
+        // Concurrent requests of the same user share one computation
+        SingleFlight.Key key = new SingleFlight.Key(user.getId(), "dashboard.user", "");
+        Long version = dataVersionService.current(user.getId());
+        if (version == null) {
+            return singleFlight.execute(key, () -> buildDashboardUserData(user));
+        }
+
+        // Keyed by data version and month, a write moves the user to a new key so nothing has to be evicted
+        Cache cache = cacheManager.getCache(Constants.DASHBOARD_OF_USER_CACHE);
+        String cacheKey = user.getId() + ":" + version + ":" + YearMonth.now();
+        return cache.get(cacheKey, () -> singleFlight.execute(key, () -> buildDashboardUserData(user)));
+    }
+
+    private DashboardUser buildDashboardUserData(User user) {
         long transactionCount = transactionsRepo.countByUserId(user.getId());
         String username = user.getFirstName() + " " + user.getLastName();
 
-        // Replace your current date handling code with this:
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-        String startInstant = startOfMonth.atZone(ZoneId.systemDefault()).toInstant().toString();
-
+        LocalDateTime startOfMonth = YearMonth.now().atDay(1).atStartOfDay();
         LocalDateTime startOfNextMonth = startOfMonth.plusMonths(1);
-        String endInstant = startOfNextMonth.atZone(ZoneId.systemDefault()).toInstant().toString();
 
-        log.info("Start date: " + startInstant);
-        log.info("End date: " + endInstant);
-
-        long transactionsThisMonth = transactionsRepo.countTransactionsByUserIdAndTransactionDateBetween(user.getId(), startInstant, endInstant);
-        List<Transaction> savingsTransactionsThisMonth = transactionsRepo.findSavingsTransactionsByUserIdAndTransactionDateBetween(user.getId(), startInstant, endInstant);
-        double totalSavingsThisMonth = savingsTransactionsThisMonth.stream().mapToDouble(Transaction::getAmount).sum();
-        List<Transaction> expenseTransactionsThisMonth = transactionsRepo.findExpenseTransactionsByUserIdAndTransactionDateBetween(user.getId(), startInstant, endInstant);
-        double totalExpensesThisMonth = expenseTransactionsThisMonth.stream().mapToDouble(Transaction::getAmount).sum();
-        List<Transaction> incomeTransactionsThisMonth = transactionsRepo.findIncomeTransactionsByUserIdAndTransactionDateBetween(user.getId(), startInstant, endInstant);
-        double totalIncomeThisMonth = incomeTransactionsThisMonth.stream().mapToDouble(Transaction::getAmount).sum();
+        // One range read of the month, count and per-type totals are taken from it
+        List<Transaction> transactionsOfMonth = transactionRepository.findInDateRange(user.getId(), null, startOfMonth, startOfNextMonth);
+        long transactionsThisMonth = transactionsOfMonth.size();
+        double totalSavingsThisMonth = sumOfType(transactionsOfMonth, "Savings");
+        double totalExpensesThisMonth = sumOfType(transactionsOfMonth, "Expense");
+        double totalIncomeThisMonth = sumOfType(transactionsOfMonth, "Income");
 
 
         TransactionsSummary transactionsSummary = new TransactionsSummary();
@@ -92,22 +110,22 @@ public class DashboardService {
     public DashboardAdmin getAdminDashboardData() {
         // Get the admin user from the security context
         User adminUser = UserUtil.getUserFromContext(userRepository);
+
+        return singleFlight.execute(new SingleFlight.Key(adminUser.getId(), "dashboard.admin", ""), () -> buildAdminDashboardData(adminUser));
+    }
+
+    private DashboardAdmin buildAdminDashboardData(User adminUser) {
         String username = adminUser.getFirstName() + " " + adminUser.getLastName();
 
         // Count all transactions in the system
         long totalTransactionsToDate = transactionsRepo.count();
 
         // Get date range for "this month"
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime startOfMonth = YearMonth.now().atDay(1).atStartOfDay();
         LocalDateTime startOfNextMonth = startOfMonth.plusMonths(1);
 
-        // Format dates as strings to match your database format - adjust format pattern if needed
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSS");
-        String startDate = startOfMonth.format(formatter);
-        String endDate = startOfNextMonth.format(formatter);
-
-        // Count transactions for this month
-        long totalTransactionsThisMonth = transactionsRepo.countTransactionsByDateBetween(startDate, endDate);
+        // Count transactions for this month, served by the date_id index
+        long totalTransactionsThisMonth = transactionRepository.countInDateRange(null, startOfMonth, startOfNextMonth);
 
         // Count total users
         int totalUsers = (int) userRepository.count();
@@ -126,4 +144,8 @@ public class DashboardService {
         return dashboardAdmin;
     }
 
+    private static double sumOfType(List<Transaction> transactions, String type) {
+        return transactions.stream().filter(t -> type.equals(t.getType())).mapToDouble(Transaction::getAmount).sum();
+    }
+
 }
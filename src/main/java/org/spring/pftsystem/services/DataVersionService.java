@@ -0,0 +1,74 @@
+package org.spring.pftsystem.services;
+
+import lombok.extern.java.Log;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Per-user monotonic data version in Redis, bumped after every write to the user's transactions,
+ * budget or goals. Reading it is one GET, so it is used for cache keys and HTTP ETags.
+ * A missing key (new user, Redis data lost) is seeded with the current time in millis, so a version
+ * never goes back to a value a client may still hold.
+ */
+@Log
+@Service
+public class DataVersionService {
+
+    static final String VERSION_PREFIX = "DATA_VERSION_";
+
+    // INCR, or start from the seed when the key did not exist
+    private static final DefaultRedisScript<Long> BUMP_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('INCR', KEYS[1]) " +
+            "if v == 1 then v = tonumber(ARGV[1]) redis.call('SET', KEYS[1], v) end " +
+            "return v", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public DataVersionService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    // null when Redis is unavailable, callers then skip caching / ETags
+    public Long current(String userId) {
+        String key = VERSION_PREFIX + userId;
+        try {
+            String version = redisTemplate.opsForValue().get(key);
+            if (version == null) {
+                redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(System.currentTimeMillis()));
+                version = redisTemplate.opsForValue().get(key);
+            }
+            return version == null ? null : Long.parseLong(version);
+        } catch (Exception e) {
+            log.warning("Could not read data version of user " + userId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Best effort, the write itself already succeeded
+    public void bump(String userId) {
+        if (userId == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(BUMP_SCRIPT, List.of(VERSION_PREFIX + userId), String.valueOf(System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.warning("Could not bump data version of user " + userId + ": " + e.getMessage());
+        }
+    }
+
+    // Strong ETag for a user's data version plus anything else the representation depends on (e.g. the current date)
+    public String etag(String userId, Object... qualifiers) {
+        Long version = current(userId);
+        if (version == null) {
+            return null;
+        }
+        StringBuilder etag = new StringBuilder("\"").append(version);
+        for (Object qualifier : qualifiers) {
+            etag.append('-').append(qualifier);
+        }
+        return etag.append('"').toString();
+    }
+}
@@ -1,16 +1,20 @@
 package org.spring.pftsystem.services;
 
 import lombok.extern.java.Log;
+import org.spring.pftsystem.constants.Constants;
 import org.spring.pftsystem.entity.schema.main.Goal;
 import org.spring.pftsystem.entity.schema.main.GoalContribution;
 import org.spring.pftsystem.entity.schema.main.Transaction;
 import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.exception.AppIllegalArgument;
 import org.spring.pftsystem.exception.NotFoundException;
 import org.spring.pftsystem.repository.GoalContributionRepository;
 import org.spring.pftsystem.repository.GoalRepository;
 import org.spring.pftsystem.repository.TransactionsRepo;
 import org.spring.pftsystem.repository.UserRepository;
 import org.spring.pftsystem.utility.UserUtil;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -23,29 +27,40 @@ public class GoalService {
     private final UserRepository userRepository;
     private final GoalContributionRepository goalContributionRepository;
     private final TransactionsRepo transactionsRepo;
+    private final DataVersionService dataVersionService;
+    private final TransactionCounterService transactionCounterService;
+    private final SystemSettingsService systemSettingsService;
 
-    public GoalService(GoalRepository goalRepository, UserRepository userRepository, GoalContributionRepository goalContributionRepository, TransactionsRepo transactionsRepo) {
+    public GoalService(GoalRepository goalRepository, UserRepository userRepository, GoalContributionRepository goalContributionRepository, TransactionsRepo transactionsRepo, DataVersionService dataVersionService, TransactionCounterService transactionCounterService, SystemSettingsService systemSettingsService) {
         this.goalRepository = goalRepository;
         this.userRepository = userRepository;
         this.goalContributionRepository = goalContributionRepository;
         this.transactionsRepo = transactionsRepo;
+        this.dataVersionService = dataVersionService;
+        this.transactionCounterService = transactionCounterService;
+        this.systemSettingsService = systemSettingsService;
     }
 
+    @CacheEvict(cacheNames = Constants.GOALS_OF_USER_CACHE, key = "T(org.spring.pftsystem.utility.UserUtil).getCurrentUserId()")
     public Goal createGoal(Goal goal) {
         User user = UserUtil.getUserFromContext(userRepository);
         goal.setId(null);
         goal.setUserID(user.getId());
-        return goalRepository.save(goal);
+        Goal savedGoal = goalRepository.save(goal);
+        dataVersionService.bump(user.getId());
+        return savedGoal;
     }
 
     public List<Goal> getAllGoals() {
         return goalRepository.findAll();
     }
 
+    @Cacheable(cacheNames = Constants.GOALS_OF_USER_CACHE, key = "#userID")
     public List<Goal> getGoalsByUserID(String userID) {
         return goalRepository.findByUserID(userID);
     }
 
+    @Cacheable(cacheNames = Constants.GOALS_OF_USER_CACHE, key = "T(org.spring.pftsystem.utility.UserUtil).getCurrentUserId()")
     public List<Goal> getGoalsOfUser() {
         User user = UserUtil.getUserFromContext(userRepository);
         return goalRepository.findByUserID(user.getId());
@@ -56,18 +71,22 @@ public class GoalService {
                 .orElseThrow(() -> new NotFoundException("Goal not found with ID: " + id));
     }
 
+    @CacheEvict(cacheNames = Constants.GOALS_OF_USER_CACHE, key = "#result.userID")
     public Goal updateGoal(String id, Goal updatedGoal) {
         Goal existingGoal = getGoalById(id);
         updatedGoal.setId(existingGoal.getId());
         updatedGoal.setUserID(existingGoal.getUserID());
-        return goalRepository.save(updatedGoal);
+        Goal savedGoal = goalRepository.save(updatedGoal);
+        dataVersionService.bump(existingGoal.getUserID());
+        return savedGoal;
     }
 
+    // The owner is only known after the lookup, deletes are rare
+    @CacheEvict(cacheNames = Constants.GOALS_OF_USER_CACHE, allEntries = true)
     public void deleteGoal(String id) {
-        if (!goalRepository.existsById(id)) {
-            throw new NotFoundException("Goal not found with ID: " + id);
-        }
+        Goal goal = getGoalById(id);
         goalRepository.deleteById(id);
+        dataVersionService.bump(goal.getUserID());
     }
 
     /**
@@ -88,6 +107,14 @@ public class GoalService {
             if (today.getDayOfMonth() == goal.getCollectionDayOfMonth()) {
                 log.info("Processing auto-collection for goal: " +  goal.getId());
 
+                // the savings transaction counts towards the user's limit like any other insert
+                try {
+                    transactionCounterService.reserve(goal.getUserID(), 1, systemSettingsService.current().totalTransactionsLimit());
+                } catch (AppIllegalArgument e) {
+                    log.warning("Skipping auto-collection for goal " + goal.getId() + ": " + e.getMessage());
+                    continue;
+                }
+
                 // Create contribution
                 GoalContribution contribution = new GoalContribution();
                 contribution.setGoalId(goal.getId());
@@ -97,6 +124,7 @@ public class GoalService {
 
                 // Create transaction record (categorized as Savings)
                 createSavingsTransaction(goal);
+                dataVersionService.bump(goal.getUserID());
 
                 collectionsProcessed++;
             }
@@ -121,11 +149,16 @@ public class GoalService {
         transaction.setIsRecurring(false);
 
         // Set current timestamp
-        String now = java.time.LocalDateTime.now().toString();
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
         transaction.setTransactionDate(now);
         transaction.setLastUpdatedAt(now);
 
-        transactionsRepo.save(transaction);
+        try {
+            transactionsRepo.save(transaction);
+        } catch (RuntimeException e) {
+            transactionCounterService.adjust(goal.getUserID(), -1); // give the reserved slot back
+            throw e;
+        }
     }
 
     /**
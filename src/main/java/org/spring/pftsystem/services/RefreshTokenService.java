@@ -0,0 +1,185 @@
+package org.spring.pftsystem.services;
+
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.security.auth.login.CredentialNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rotating opaque refresh tokens kept in Redis.
+ * A token is "<family>.<secret>"; the family hash holds the SHA-256 of the family's current token,
+ * never the token itself. Every refresh replaces the current hash; presenting any other token of the
+ * family (one that was already rotated) revokes the whole family (reuse detection).
+ * Scripts only touch the family key they are given, so they run unchanged on Redis Cluster.
+ */
+@Log
+@Service
+public class RefreshTokenService {
+
+    static final String FAMILY_PREFIX = "REFRESH_FAMILY_";
+    static final String USER_PREFIX = "REFRESH_USER_";
+    private static final char FAMILY_SEPARATOR = '.';
+
+    // KEYS: family | ARGV: uid, role, token version, token hash, access token id, ttl seconds
+    private static final RedisScript<Long> ISSUE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], 'uid', ARGV[1], 'role', ARGV[2], 'ver', ARGV[3], 'cur', ARGV[4], 'jti', ARGV[5])
+            redis.call('EXPIRE', KEYS[1], ARGV[6])
+            return 1
+            """, Long.class);
+
+    // KEYS: family | ARGV: presented hash, new hash, ttl seconds, access token id
+    private static final RedisScript<List> ROTATE_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('HGET', KEYS[1], 'cur')
+            if not current then
+                return {'unknown'}
+            end
+            local family = redis.call('HMGET', KEYS[1], 'uid', 'role', 'ver', 'jti')
+            if current ~= ARGV[1] then
+                redis.call('DEL', KEYS[1])
+                return {'reused', family[1], family[4] or ''}
+            end
+            redis.call('HSET', KEYS[1], 'cur', ARGV[2], 'jti', ARGV[4])
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+            return {'ok', family[1], family[2], family[3], family[4] or ''}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final long ttlSeconds;
+
+    public RefreshTokenService(StringRedisTemplate redisTemplate,
+                               @Value("${auth.refresh-token.ttl-hours:336}") long ttlHours) {
+        this.redisTemplate = redisTemplate;
+        this.ttlSeconds = TimeUnit.HOURS.toSeconds(ttlHours);
+    }
+
+    // Start a new token family (one per device) at sign-in, bound to the access token id
+    public Issued issue(String userId, String role, int tokenVersion, String tokenId) {
+        String family = UUID.randomUUID().toString();
+        String token = family + FAMILY_SEPARATOR + newSecret();
+        // index first: a family that exists is always reachable from revokeAll
+        redisTemplate.opsForSet().add(USER_PREFIX + userId, family);
+        redisTemplate.expire(USER_PREFIX + userId, ttlSeconds, TimeUnit.SECONDS);
+        redisTemplate.execute(ISSUE_SCRIPT, List.of(FAMILY_PREFIX + family),
+                userId, String.valueOf(role), String.valueOf(tokenVersion), hash(token), tokenId, String.valueOf(ttlSeconds));
+        return new Issued(family, token);
+    }
+
+    // Exchange a refresh token for its successor bound to the new access token id, one script on the family key
+    public Rotation rotate(String refreshToken, String tokenId) throws CredentialNotFoundException {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            throw new IllegalArgumentException("Refresh token must not be empty");
+        }
+        String family = familyOf(refreshToken);
+        if (family == null) {
+            throw new CredentialNotFoundException("Invalid refresh token");
+        }
+
+        String nextToken = family + FAMILY_SEPARATOR + newSecret();
+        List<?> result = redisTemplate.execute(ROTATE_SCRIPT, List.of(FAMILY_PREFIX + family),
+                hash(refreshToken), hash(nextToken), String.valueOf(ttlSeconds), tokenId);
+
+        String status = result == null || result.isEmpty() ? "unknown" : String.valueOf(result.get(0));
+        switch (status) {
+            case "ok" -> {
+                String userId = String.valueOf(result.get(1));
+                redisTemplate.expire(USER_PREFIX + userId, ttlSeconds, TimeUnit.SECONDS);
+                return new Rotation(
+                        userId,
+                        String.valueOf(result.get(2)),
+                        Integer.parseInt(String.valueOf(result.get(3))),
+                        family,
+                        String.valueOf(result.get(4)),
+                        nextToken);
+            }
+            case "reused" -> {
+                String userId = String.valueOf(result.get(1));
+                redisTemplate.opsForSet().remove(USER_PREFIX + userId, family);
+                log.warning("Refresh token reuse detected, token family revoked for UID : " + userId);
+                throw new ReuseDetected(userId, String.valueOf(result.get(2)));
+            }
+            default -> throw new CredentialNotFoundException("Invalid refresh token");
+        }
+    }
+
+    // Revoke the family of a single device (logout)
+    public void revokeFamily(String userId, String family) {
+        deleteFamily(family);
+        redisTemplate.opsForSet().remove(USER_PREFIX + userId, family);
+    }
+
+    // Revoke every refresh token family of the user (logout of all devices)
+    public void revokeAll(String userId) {
+        Set<String> families = redisTemplate.opsForSet().members(USER_PREFIX + userId);
+        if (families != null) {
+            families.forEach(this::deleteFamily);
+        }
+        redisTemplate.delete(USER_PREFIX + userId);
+    }
+
+    // One key per call, families of a user live in different slots
+    private void deleteFamily(String family) {
+        redisTemplate.delete(FAMILY_PREFIX + family);
+    }
+
+    private static String familyOf(String refreshToken) {
+        int separator = refreshToken.indexOf(FAMILY_SEPARATOR);
+        return separator > 0 && separator < refreshToken.length() - 1 ? refreshToken.substring(0, separator) : null;
+    }
+
+    private String newSecret() {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Issued(String family, String refreshToken) {
+    }
+
+    public record Rotation(String userId, String role, int tokenVersion, String family, String previousTokenId, String refreshToken) {
+    }
+
+    // A rotated token was presented again: the family is gone, the caller still has to end its access token
+    public static class ReuseDetected extends CredentialNotFoundException {
+
+        private final String userId;
+        private final String tokenId;
+
+        public ReuseDetected(String userId, String tokenId) {
+            super("Refresh token reused");
+            this.userId = userId;
+            this.tokenId = tokenId;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public String getTokenId() {
+            return tokenId;
+        }
+    }
+}
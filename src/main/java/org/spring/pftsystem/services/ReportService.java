@@ -6,13 +6,16 @@ import org.spring.pftsystem.entity.schema.main.Report;
 import org.spring.pftsystem.entity.schema.main.Transaction;
 import org.spring.pftsystem.entity.schema.main.User;
 import org.spring.pftsystem.entity.schema.sub.FilteredTransaction;
+import org.spring.pftsystem.entity.schema.sub.Filters;
 import org.spring.pftsystem.entity.schema.sub.Summary;
 import org.spring.pftsystem.repository.UserRepository;
 import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.SingleFlight;
 import org.spring.pftsystem.utility.UserUtil;
 import org.springframework.stereotype.Service;
 
 import java.text.ParseException;
+import java.time.LocalDateTime;
 import java.util.*;
 
 
@@ -22,13 +25,33 @@ public class ReportService {
 
     private final TransactionRepositoryImpl transactionRepository;
     private final UserRepository userRepository;
+    private final SingleFlight singleFlight;
 
-    public ReportService(TransactionRepositoryImpl transactionRepository, UserRepository userRepository) {
+    public ReportService(TransactionRepositoryImpl transactionRepository, UserRepository userRepository, SingleFlight singleFlight) {
         this.transactionRepository = transactionRepository;
         this.userRepository = userRepository;
+        this.singleFlight = singleFlight;
     }
 
     public Report generateReport(ReportRequest request) throws ParseException {
+        User user = UserUtil.getUserFromContext(userRepository);
+
+        // Identical concurrent report requests of the same user share one computation
+        SingleFlight.Key key = new SingleFlight.Key(user.getId(), "report", canonicalParams(request));
+        return singleFlight.execute(key, () -> buildReport(request, user.getId()));
+    }
+
+    private String canonicalParams(ReportRequest request) {
+        Filters filters = request.getFilters();
+        return String.join("|",
+                String.valueOf(request.getReportType()).toLowerCase(),
+                String.valueOf(request.getTimePeriod().getStartDate()),
+                String.valueOf(request.getTimePeriod().getEndDate()),
+                filters == null ? "" : SingleFlight.canonical(filters.getCategories()),
+                filters == null ? "" : SingleFlight.canonical(filters.getTags()));
+    }
+
+    private Report buildReport(ReportRequest request, String userId) throws ParseException {
         List<String> typeFilters = null;
         switch (request.getReportType().toLowerCase()) {
             case "expenditure":
@@ -48,13 +71,10 @@ public class ReportService {
                 break;
         }
 
-        // Using string dates for MongoDB queries instead of Date objects
+        // Inclusive bounds, parsed into date comparisons by the repository
         String startDate = request.getTimePeriod().getStartDate();
         String endDate = request.getTimePeriod().getEndDate();
 
-        User user = UserUtil.getUserFromContext(userRepository);
-        String userId = user.getId();
-
         // Fetch and filter transactions based on the request
         List<Transaction> transactions = transactionRepository.findFilteredTransactions(
                 userId,
@@ -91,13 +111,8 @@ public class ReportService {
         FilteredTransaction filteredTransaction = new FilteredTransaction();
         filteredTransaction.setType(transaction.getType());
 
-        // Since MongoDB stores dates as strings, we don't need to parse and format
-        // Just make sure the format is consistent with what we expect in the API response
-        String transactionDate = transaction.getTransactionDate();
-
-        // If format conversion is needed, we can add it here
-        // For now, we'll just pass the string through
-        filteredTransaction.setDate(transactionDate);
+        // ISO-8601 local date-time, as the transaction API returns it
+        filteredTransaction.setDate(formatDate(transaction.getTransactionDate()));
 
         filteredTransaction.setAmount(transaction.getAmount());
         filteredTransaction.setCategory(transaction.getCategory());
@@ -120,11 +135,11 @@ public class ReportService {
         Transaction highestIncomeTransaction = null;
 
         // Set to track unique transaction dates for expense
-        Set<String> uniqueExpenseDates = new HashSet<>();
+        Set<LocalDateTime> uniqueExpenseDates = new HashSet<>();
 
         for (Transaction transaction : transactions) {
             double amount = transaction.getAmount();
-            String transactionDate = transaction.getTransactionDate();
+            LocalDateTime transactionDate = transaction.getTransactionDate();
 
             switch (transaction.getType().toLowerCase()) {
                 case "income":
@@ -172,7 +187,7 @@ public class ReportService {
             Summary.HighestExpense highestExpense = new Summary.HighestExpense();
             highestExpense.setAmount(highestExpenseTransaction.getAmount());
             highestExpense.setCategory(highestExpenseTransaction.getCategory());
-            highestExpense.setDate(highestExpenseTransaction.getTransactionDate());
+            highestExpense.setDate(formatDate(highestExpenseTransaction.getTransactionDate()));
             summary.setHighestExpense(highestExpense);
         }
 
@@ -181,10 +196,14 @@ public class ReportService {
             Summary.HighestIncome highestIncome = new Summary.HighestIncome();
             highestIncome.setAmount(highestIncomeTransaction.getAmount());
             highestIncome.setSource(highestIncomeTransaction.getBeneficiary());
-            highestIncome.setDate(highestIncomeTransaction.getTransactionDate());
+            highestIncome.setDate(formatDate(highestIncomeTransaction.getTransactionDate()));
             summary.setHighestIncome(highestIncome);
         }
 
         return summary;
     }
+
+    private static String formatDate(LocalDateTime date) {
+        return date == null ? null : date.toString();
+    }
 }
\ No newline at end of file
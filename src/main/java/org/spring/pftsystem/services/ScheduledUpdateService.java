@@ -29,6 +29,9 @@ public class ScheduledUpdateService {
     @Autowired
     private GoalService goalService;
 
+    @Autowired
+    private TransactionCounterService transactionCounterService;
+
     /**
      * Daily job to process recurring transactions, update budgets, and collect goal contributions
      * Runs at midnight every day (0 0 0 * * ?)
@@ -41,7 +44,7 @@ public class ScheduledUpdateService {
             // Process recurring transactions
             transactionService.processRecurringTransactions();
 
-            // Update budget statuses
+            // Full recompute of budget statuses: starts the new month and corrects drift left by per-transaction deltas
             budgetService.updateAllBudgets();
 
             // Process goal auto-collections
@@ -53,6 +56,20 @@ public class ScheduledUpdateService {
         }
     }
 
+    /**
+     * Hourly job to correct per-user transaction counters that drifted from the real counts
+     * Runs at minute 30 of every hour (0 30 * * * ?)
+     */
+    @Scheduled(cron = "0 30 * * * ?")
+    public void reconcileTransactionCounters() {
+        try {
+            int corrected = transactionCounterService.reconcile();
+            log.info("Transaction counter reconciliation corrected " + corrected + " counter(s)");
+        } catch (Exception e) {
+            log.severe("Error during transaction counter reconciliation: " + e.getMessage() + " " + e);
+        }
+    }
+
     /**
      * Hourly job to update budgets (more frequent updates for budgets)
      * Runs at minute 0 of every hour (0 0 * * * ?)
@@ -0,0 +1,65 @@
+package org.spring.pftsystem.services;
+
+import lombok.extern.java.Log;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Per-user session index in Redis, one sorted set per user.
+ * Members are token ids (jti) scored by the token expiry, so every device has its own entry
+ * and checking a token is a single ZSCORE.
+ */
+@Log
+@Service
+public class SessionService {
+
+    static final String SESSIONS_PREFIX = "SESSIONS_";
+
+    // The index expires with its newest session (highest score), so a shorter session never cuts the others short
+    static final RedisScript<Long> REGISTER_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])
+            if ARGV[3] ~= '' then
+                redis.call('ZREM', KEYS[1], ARGV[3])
+            end
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[4])
+            local newest = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES')
+            if newest[2] then
+                redis.call('PEXPIREAT', KEYS[1], newest[2])
+            end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public SessionService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    // Add a session (optionally replacing the one it was refreshed from) and trim expired ones, one round trip
+    public void register(String userId, String tokenId, Date expiresAt, String replacedTokenId) {
+        redisTemplate.execute(REGISTER_SCRIPT, List.of(SESSIONS_PREFIX + userId),
+                String.valueOf(expiresAt.getTime()), tokenId,
+                replacedTokenId != null ? replacedTokenId : "",
+                String.valueOf(System.currentTimeMillis()));
+    }
+
+    public boolean isActive(String userId, String tokenId) {
+        Double expiresAt = redisTemplate.opsForZSet().score(SESSIONS_PREFIX + userId, tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    // Logout of a single device
+    public void revoke(String userId, String tokenId) {
+        redisTemplate.opsForZSet().remove(SESSIONS_PREFIX + userId, tokenId);
+    }
+
+    // Logout of every device
+    public void revokeAll(String userId) {
+        redisTemplate.delete(SESSIONS_PREFIX + userId);
+    }
+}
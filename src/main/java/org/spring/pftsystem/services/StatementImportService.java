@@ -0,0 +1,494 @@
+package org.spring.pftsystem.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.spring.pftsystem.entity.response.ImportJobStatus;
+import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.exception.AppIllegalArgument;
+import org.spring.pftsystem.exception.DatabaseOperationException;
+import org.spring.pftsystem.exception.NotFoundException;
+import org.spring.pftsystem.exception.TooManyRequestsException;
+import org.spring.pftsystem.repository.UserRepository;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.MappedLineReader;
+import org.spring.pftsystem.utility.StatementParser;
+import org.spring.pftsystem.utility.UserUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports bank statements (CSV / OFX) in the background. The upload is spooled to disk and read
+ * through a memory-mapped line reader, rows are deduplicated by a per-user import key and written
+ * with one unordered bulk insert per chunk, so heap use depends on the chunk size (and the rows of one
+ * statement date), not the file.
+ * Progress is kept in Redis under the job id for polling from any node.
+ */
+@Log
+@Service
+public class StatementImportService {
+
+    static final String JOB_PREFIX = "IMPORT_JOB_";
+    static final String BUSY_MESSAGE = "Too many statement imports in progress, please retry shortly";
+    private static final String DEFAULT_SENDER_DESCRIPTION = "Statement import";
+    private static final int MAX_TEXT_LENGTH = 50;
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private final TransactionRepositoryImpl transactionRepository;
+    private final TransactionCounterService transactionCounterService;
+    private final UserRepository userRepository;
+    private final SystemSettingsService systemSettingsService;
+    private final CategoryService categoryService;
+    private final BudgetService budgetService;
+    private final DataVersionService dataVersionService;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final Path spoolDirectory;
+    private final int chunkSize;
+    private final Duration jobTtl;
+    private final Counter rowsCounter;
+
+    public StatementImportService(TransactionRepositoryImpl transactionRepository,
+                                  TransactionCounterService transactionCounterService,
+                                  UserRepository userRepository,
+                                  SystemSettingsService systemSettingsService,
+                                  CategoryService categoryService,
+                                  BudgetService budgetService,
+                                  DataVersionService dataVersionService,
+                                  StringRedisTemplate redisTemplate,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${statement-import.threads:2}") int threads,
+                                  @Value("${statement-import.queue-capacity:8}") int queueCapacity,
+                                  @Value("${statement-import.chunk-size:1000}") int chunkSize,
+                                  @Value("${statement-import.job-ttl-hours:24}") long jobTtlHours,
+                                  @Value("${statement-import.spool-dir:${java.io.tmpdir}}") String spoolDirectory) {
+        this.transactionRepository = transactionRepository;
+        this.transactionCounterService = transactionCounterService;
+        this.userRepository = userRepository;
+        this.systemSettingsService = systemSettingsService;
+        this.categoryService = categoryService;
+        this.budgetService = budgetService;
+        this.dataVersionService = dataVersionService;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.spoolDirectory = Path.of(spoolDirectory);
+        this.chunkSize = chunkSize;
+        this.jobTtl = Duration.ofHours(jobTtlHours);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "statement-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.rowsCounter = Counter.builder("statement.import.rows")
+                .description("Statement rows inserted as transactions")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void ensureIndexes() {
+        try {
+            transactionRepository.ensureImportKeyIndex();
+        } catch (Exception e) {
+            log.warning("Could not ensure the statement import index: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Spools the upload and queues the import; the returned job id is polled via getStatus
+    public ImportJobStatus submit(MultipartFile file, String format, String defaultCategory) {
+        if (file == null || file.isEmpty()) {
+            throw new AppIllegalArgument("Statement file is empty", 400);
+        }
+        StatementParser.Format statementFormat = StatementParser.Format.of(format, file.getOriginalFilename());
+        String category = defaultCategory == null ? null : categoryService.canonicalName(defaultCategory);
+        if (defaultCategory != null && category == null) {
+            throw new AppIllegalArgument("Invalid default category: " + defaultCategory, 400);
+        }
+        User user = UserUtil.getUserFromContext(userRepository);
+
+        ImportJobStatus job = new ImportJobStatus();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setUserId(user.getId());
+        job.setStatus("QUEUED");
+        job.setFormat(statementFormat.name());
+        job.setBytesTotal(file.getSize());
+
+        // the multipart temp file is removed when the request ends, so keep our own copy
+        Path spooled = spool(file, job.getJobId());
+
+        save(job);
+        // the queued state as a separate copy, the worker mutates job while this one is serialized
+        ImportJobStatus accepted = objectMapper.convertValue(job, ImportJobStatus.class);
+        try {
+            executor.execute(() -> run(job, user, spooled, statementFormat, category));
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(spooled);
+            redisTemplate.delete(JOB_PREFIX + job.getJobId());
+            throw new TooManyRequestsException(BUSY_MESSAGE);
+        }
+        log.info("Queued statement import " + job.getJobId() + " for user " + user.getId());
+        return accepted;
+    }
+
+    private Path spool(MultipartFile file, String jobId) {
+        Path spooled = null;
+        try {
+            Files.createDirectories(spoolDirectory);
+            spooled = Files.createTempFile(spoolDirectory, "statement-" + jobId, ".tmp");
+            file.transferTo(spooled);
+            return spooled;
+        } catch (IOException e) {
+            if (spooled != null) {
+                deleteQuietly(spooled);
+            }
+            throw new IllegalStateException("Could not store the statement file", e);
+        }
+    }
+
+    public ImportJobStatus getStatus(String jobId) {
+        String json = redisTemplate.opsForValue().get(JOB_PREFIX + jobId);
+        if (json == null) {
+            throw new NotFoundException("Import job not found");
+        }
+        ImportJobStatus job;
+        try {
+            job = objectMapper.readValue(json, ImportJobStatus.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable import job " + jobId, e);
+        }
+        // other users' jobs look exactly like missing ones
+        if (!job.getUserId().equals(UserUtil.getCurrentUserId())) {
+            throw new NotFoundException("Import job not found");
+        }
+        return job;
+    }
+
+    void run(ImportJobStatus job, User user, Path file, StatementParser.Format format, String defaultCategory) {
+        job.setStatus("RUNNING");
+        job.setStartedAt(LocalDateTime.now().toString());
+        save(job);
+
+        ImportRun importRun = new ImportRun(job, user, defaultCategory);
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            job.setBytesTotal(reader.size());
+            importRun.start();
+
+            StatementParser parser = StatementParser.of(format, reader);
+            List<Transaction> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                StatementParser.Row row;
+                try {
+                    row = parser.next();
+                } catch (StatementParser.RowException e) {
+                    job.setRowsRead(job.getRowsRead() + 1);
+                    job.setInvalid(job.getInvalid() + 1);
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                job.setRowsRead(job.getRowsRead() + 1);
+
+                try {
+                    chunk.add(importRun.toTransaction(row));
+                } catch (StatementParser.RowException e) {
+                    job.setInvalid(job.getInvalid() + 1);
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    importRun.flush(chunk);
+                    job.setBytesRead(reader.position());
+                    save(job);
+                }
+            }
+            importRun.flush(chunk);
+            job.setBytesRead(reader.size());
+            job.setStatus("COMPLETED");
+        } catch (Exception e) {
+            log.warning("Statement import " + job.getJobId() + " failed: " + e.getMessage());
+            job.setStatus("FAILED");
+            job.setError(e.getMessage());
+        } finally {
+            job.setFinishedAt(LocalDateTime.now().toString());
+            save(job);
+            deleteQuietly(file);
+            importRun.finish();
+        }
+        log.info("Statement import " + job.getJobId() + " " + job.getStatus() + ": " + job.getInserted()
+                + " inserted, " + job.getDuplicates() + " duplicates, " + job.getInvalid() + " invalid");
+    }
+
+    // Best effort, a lost progress update only delays what a poll shows
+    private void save(ImportJobStatus job) {
+        try {
+            redisTemplate.opsForValue().set(JOB_PREFIX + job.getJobId(), objectMapper.writeValueAsString(job), jobTtl);
+        } catch (Exception e) {
+            log.warning("Could not store progress of import " + job.getJobId() + ": " + e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warning("Could not delete spooled statement " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Same rules as the Transaction constraints: no angle brackets, at most 50 characters
+    private static String clean(String value) {
+        if (value == null) {
+            return null;
+        }
+        String cleaned = value.replace("<", "").replace(">", "").trim();
+        if (cleaned.isEmpty()) {
+            return null;
+        }
+        return cleaned.length() > MAX_TEXT_LENGTH ? cleaned.substring(0, MAX_TEXT_LENGTH) : cleaned;
+    }
+
+    /**
+     * Occurrence of each row fingerprint within the current statement date. Statements list their rows
+     * by date, so only the fingerprints of one day are held: the counts restart when the date changes,
+     * which keeps the map at the size of one day instead of one entry per distinct row of the file.
+     */
+    static class RowOccurrences {
+
+        private final Map<String, Integer> counts = new HashMap<>();
+        private LocalDate date;
+
+        int next(LocalDate rowDate, String fingerprint) {
+            if (!rowDate.equals(date)) {
+                counts.clear();
+                date = rowDate;
+            }
+            return counts.merge(fingerprint, 1, Integer::sum);
+        }
+
+        int size() {
+            return counts.size();
+        }
+    }
+
+    // State of one running import: quota, fingerprinting and the write side
+    private class ImportRun {
+
+        private final ImportJobStatus job;
+        private final User user;
+        private final String defaultCategory;
+        private final MessageDigest digest;
+        private final RowOccurrences occurrences = new RowOccurrences();
+        private int limit;
+        private boolean expenseInserted;
+
+        ImportRun(ImportJobStatus job, User user, String defaultCategory) {
+            this.job = job;
+            this.user = user;
+            this.defaultCategory = defaultCategory;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void start() {
+            limit = systemSettingsService.current().totalTransactionsLimit();
+        }
+
+        Transaction toTransaction(StatementParser.Row row) throws StatementParser.RowException {
+            if (row.amount().signum() == 0) {
+                throw new StatementParser.RowException("Zero amount");
+            }
+            String beneficiary = clean(row.description());
+            if (beneficiary == null) {
+                throw new StatementParser.RowException("Missing description");
+            }
+
+            // stored under the configured name, like every other write path
+            String configured = row.category() != null ? categoryService.canonicalName(row.category()) : null;
+            String category = configured != null ? configured : defaultCategory;
+            if (category == null) {
+                throw new StatementParser.RowException("Unknown category: " + row.category());
+            }
+
+            Transaction transaction = new Transaction();
+            transaction.setUserId(user.getId());
+            transaction.setType(typeOf(row));
+            transaction.setCategory(category);
+            transaction.setBeneficiary(beneficiary);
+            String memo = clean(row.memo());
+            transaction.setSenderDescription(memo != null ? memo : DEFAULT_SENDER_DESCRIPTION);
+            transaction.setAmount(row.amount().abs().doubleValue());
+            transaction.setCurrency(row.currency() != null ? currencyOf(row.currency()) : user.getSettings().getCurrency());
+            transaction.setIsRecurring(false);
+            transaction.setNotify(false);
+            transaction.setTransactionDate(row.date().atStartOfDay());
+            transaction.setImportKey(importKey(row));
+            return transaction;
+        }
+
+        // Drops rows already stored (or repeated in the chunk), then one unordered bulk insert
+        void flush(List<Transaction> chunk) {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Map<String, Transaction> unique = new LinkedHashMap<>();
+            for (Transaction transaction : chunk) {
+                if (unique.putIfAbsent(transaction.getImportKey(), transaction) != null) {
+                    job.setDuplicates(job.getDuplicates() + 1);
+                }
+            }
+            chunk.clear();
+
+            Set<String> existing = transactionRepository.findImportKeys(user.getId(), unique.keySet());
+            unique.keySet().removeAll(existing);
+            job.setDuplicates(job.getDuplicates() + existing.size());
+
+            List<Transaction> toInsert = new ArrayList<>(unique.values());
+            if (toInsert.isEmpty()) {
+                return;
+            }
+            // quota per chunk from the atomic counter, instead of a count per row
+            int granted = transactionCounterService.reserveUpTo(user.getId(), toInsert.size(), limit);
+            boolean limitReached = granted < toInsert.size();
+            if (granted > 0) {
+                insert(toInsert.subList(0, granted));
+            }
+            if (limitReached) {
+                throw new AppIllegalArgument("Maximum transactions limit for user reached", 400);
+            }
+        }
+
+        private void insert(List<Transaction> transactions) {
+            int inserted;
+            try {
+                inserted = transactionRepository.insertAll(transactions);
+            } catch (BulkOperationException e) {
+                // a concurrent import of the same statement loses on the unique index, anything else is fatal
+                inserted = e.getResult().getInsertedCount();
+                long duplicateKeys = e.getErrors().stream().filter(error -> error.getCode() == DUPLICATE_KEY_ERROR).count();
+                job.setDuplicates(job.getDuplicates() + duplicateKeys);
+                if (duplicateKeys < e.getErrors().size()) {
+                    record(inserted, transactions);
+                    BulkWriteError first = e.getErrors().get(0);
+                    throw new DatabaseOperationException("Statement import write failed: " + first.getMessage());
+                }
+            } catch (RuntimeException e) {
+                transactionCounterService.adjust(user.getId(), -transactions.size()); // give the reserved slots back
+                throw e;
+            }
+            record(inserted, transactions);
+        }
+
+        private void record(int inserted, List<Transaction> transactions) {
+            job.setInserted(job.getInserted() + inserted);
+            if (inserted < transactions.size()) {
+                transactionCounterService.adjust(user.getId(), inserted - transactions.size()); // unused reservations
+            }
+            rowsCounter.increment(inserted);
+            if (inserted > 0 && transactions.stream().anyMatch(t -> "expense".equalsIgnoreCase(t.getType()))) {
+                expenseInserted = true;
+            }
+        }
+
+        // version bump and a single budget recompute for the whole import
+        void finish() {
+            if (job.getInserted() == 0) {
+                return;
+            }
+            dataVersionService.bump(user.getId());
+            if (expenseInserted) {
+                try {
+                    budgetService.updateBudgetForUser(user.getId());
+                } catch (Exception e) {
+                    log.warning("Budget update after import " + job.getJobId() + " failed: " + e.getMessage());
+                }
+            }
+        }
+
+        private String typeOf(StatementParser.Row row) {
+            if (row.type() != null) {
+                for (String type : List.of("Expense", "Income", "Savings")) {
+                    if (type.equalsIgnoreCase(row.type().trim())) {
+                        return type;
+                    }
+                }
+            }
+            return row.amount().signum() < 0 ? "Expense" : "Income";
+        }
+
+        // Same set as @ValidCurrency, an unknown code rejects the row instead of being stored as is
+        private String currencyOf(String code) throws StatementParser.RowException {
+            String upper = code.toUpperCase(Locale.ROOT);
+            try {
+                Currency.getInstance(upper);
+            } catch (IllegalArgumentException e) {
+                throw new StatementParser.RowException("Unknown currency: " + code);
+            }
+            return upper;
+        }
+
+        // The bank's transaction id when present, otherwise date, amount and description plus the
+        // occurrence of that fingerprint within its date run, so identical rows on one day are all kept
+        // while a re-import of the same statement still produces the same keys
+        private String importKey(StatementParser.Row row) {
+            String source;
+            if (row.externalId() != null) {
+                source = "id:" + row.externalId();
+            } else {
+                String fingerprint = row.date() + "|" + row.amount().stripTrailingZeros().toPlainString()
+                        + "|" + row.description().trim().toLowerCase(Locale.ROOT);
+                int occurrence = occurrences.next(row.date(), fingerprint);
+                source = "row:" + fingerprint + "|" + occurrence;
+            }
+            byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        }
+    }
+}
@@ -1,18 +1,51 @@
 package org.spring.pftsystem.services;
 
+import lombok.extern.java.Log;
+import org.spring.pftsystem.constants.Constants;
 import org.spring.pftsystem.entity.schema.main.SystemSettings;
 import org.spring.pftsystem.repository.SystemSettingsRepo;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
+/**
+ * Owns the system settings. Hot paths read the immutable in-memory snapshot from current();
+ * Mongo is only read on first use, by the admin API, and when another node announces a change.
+ */
+@Log
 @Service
-public class SystemSettingsService {
+public class SystemSettingsService implements MessageListener {
 
     private final SystemSettingsRepo systemSettingsRepo;
+    private final StringRedisTemplate redisTemplate;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
 
-    public SystemSettingsService(SystemSettingsRepo systemSettingsRepo) {
+    public SystemSettingsService(SystemSettingsRepo systemSettingsRepo,
+                                 StringRedisTemplate redisTemplate,
+                                 RedisMessageListenerContainer listenerContainer) {
         this.systemSettingsRepo = systemSettingsRepo;
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this, new ChannelTopic(Constants.SETTINGS_CHANGED_CHANNEL));
+    }
+
+    // Settings for hot paths, loaded from Mongo once and then served from memory
+    public Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            current = refresh(getSystemSettings());
+        }
+        return current;
     }
 
     public SystemSettings getSystemSettings(){
@@ -21,11 +54,32 @@ public class SystemSettingsService {
             // Initialize with default values
             settings = createDefaultSettings();
         }
+        refresh(settings);
         return settings;
     }
 
     public SystemSettings updateSystemSettings(SystemSettings settings) {
-        return systemSettingsRepo.save(settings);
+        SystemSettings saved = systemSettingsRepo.save(settings);
+        refresh(saved);
+        try {
+            redisTemplate.convertAndSend(Constants.SETTINGS_CHANGED_CHANNEL, String.valueOf(saved.getId()));
+        } catch (Exception e) {
+            log.warning("Could not announce system settings change : " + e.getMessage());
+        }
+        return saved;
+    }
+
+    // Another node saved new settings
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        log.info("System settings changed on another node, reloading");
+        getSystemSettings();
+    }
+
+    private Snapshot refresh(SystemSettings settings) {
+        Snapshot next = Snapshot.of(settings, snapshot.get());
+        snapshot.set(next);
+        return next;
     }
 
     private SystemSettings createDefaultSettings() {
@@ -38,4 +92,56 @@ public class SystemSettingsService {
         );
         return systemSettingsRepo.save(defaultSettings);
     }
+
+    // Immutable copy of the settings, safe to share between threads
+    public record Snapshot(String id,
+                           int totalTransactionsLimit,
+                           int recurringTransactionsLimit,
+                           List<String> categories,
+                           Map<String, String> categoryIndex,
+                           int jwtExpirationTime) {
+
+        public static Snapshot of(SystemSettings settings) {
+            return of(settings, null);
+        }
+
+        static Snapshot of(SystemSettings settings, Snapshot previous) {
+            List<String> categories = settings.getCategories() == null ? List.of() : List.copyOf(settings.getCategories());
+            // the hashed index is only rebuilt when the category list actually changed
+            Map<String, String> categoryIndex = previous != null && previous.categories().equals(categories)
+                    ? previous.categoryIndex()
+                    : indexOf(categories);
+            return new Snapshot(
+                    settings.getId(),
+                    settings.getTotalTransactionsLimit(),
+                    settings.getRecurringTransactionsLimit(),
+                    categories,
+                    categoryIndex,
+                    settings.getJWTExpirationTime());
+        }
+
+        // O(1) lookup on the normalized name
+        public boolean isValidCategory(String category) {
+            return canonicalCategory(category) != null;
+        }
+
+        // The configured spelling of a category ("food " -> "Food"), null when it is not configured.
+        // Write paths store this name, so reports and limits keep grouping by one exact string.
+        public String canonicalCategory(String category) {
+            return category == null ? null : categoryIndex.get(normalizeCategory(category));
+        }
+
+        public static String normalizeCategory(String category) {
+            return category.trim().toLowerCase(Locale.ROOT);
+        }
+
+        private static Map<String, String> indexOf(List<String> categories) {
+            return categories.stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toUnmodifiableMap(
+                            category -> normalizeCategory(category).intern(),
+                            String::intern,
+                            (first, second) -> first)); // names differing only in case: the first one wins
+        }
+    }
 }
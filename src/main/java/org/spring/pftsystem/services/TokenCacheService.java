@@ -0,0 +1,125 @@
+package org.spring.pftsystem.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.java.Log;
+import org.spring.pftsystem.constants.Constants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node-local allowlist of token ids (jti) that were confirmed active in the Redis session index.
+ * Entries live until the token expires or the max staleness elapses, whichever comes first,
+ * and are dropped on every node when a login/logout invalidation is published.
+ */
+@Log
+@Service
+public class TokenCacheService implements MessageListener {
+
+    // Invalidation messages carry "<userId>" for every session of a user, or "<userId>:<tokenId>" for one session
+    private static final String SESSION_SEPARATOR = ":";
+
+    private final StringRedisTemplate redisTemplate;
+    private final SessionService sessionService;
+    private final Cache<String, ActiveToken> activeTokens;
+
+    public TokenCacheService(StringRedisTemplate redisTemplate,
+                             SessionService sessionService,
+                             RedisMessageListenerContainer listenerContainer,
+                             @Value("${auth.token-cache.max-size:10000}") long maxSize,
+                             @Value("${auth.token-cache.max-staleness-seconds:30}") long maxStalenessSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.sessionService = sessionService;
+        this.activeTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(TimeUnit.SECONDS.toNanos(maxStalenessSeconds)))
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(Constants.TOKEN_INVALIDATION_CHANNEL));
+    }
+
+    // Check the local allowlist first, fall back to the session index (one ZSCORE) only on a miss
+    public boolean isActive(String userId, String tokenId, Date expiresAt) {
+        if (tokenId == null) {
+            return false; // tokens issued before the session index carry no id
+        }
+        if (activeTokens.getIfPresent(tokenId) != null) {
+            return true;
+        }
+
+        if (!sessionService.isActive(userId, tokenId)) {
+            return false;
+        }
+
+        activeTokens.put(tokenId, new ActiveToken(userId, expiresAt.getTime()));
+        return true;
+    }
+
+    // Drop the user's tokens locally and tell the other nodes to do the same
+    public void invalidate(String userId) {
+        evictUser(userId);
+        publish(userId);
+    }
+
+    // Drop a single session locally and on the other nodes
+    public void invalidateSession(String userId, String tokenId) {
+        activeTokens.invalidate(tokenId);
+        publish(userId + SESSION_SEPARATOR + tokenId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SESSION_SEPARATOR);
+        if (separator >= 0) {
+            activeTokens.invalidate(body.substring(separator + 1));
+        } else {
+            evictUser(body);
+        }
+        log.fine("Token cache invalidated for : " + body);
+    }
+
+    // Best effort, other nodes fall back to their staleness bound when Redis is unavailable
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(Constants.TOKEN_INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            log.warning("Could not publish token invalidation : " + e.getMessage());
+        }
+    }
+
+    private void evictUser(String userId) {
+        activeTokens.asMap().values().removeIf(activeToken -> activeToken.userId().equals(userId));
+    }
+
+    private record ActiveToken(String userId, long expiresAtMillis) {
+    }
+
+    private record TokenExpiry(long maxStalenessNanos) implements Expiry<String, ActiveToken> {
+
+        @Override
+        public long expireAfterCreate(String tokenId, ActiveToken activeToken, long currentTime) {
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(activeToken.expiresAtMillis() - System.currentTimeMillis());
+            return Math.max(0, Math.min(maxStalenessNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenId, ActiveToken activeToken, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenId, activeToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenId, ActiveToken activeToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
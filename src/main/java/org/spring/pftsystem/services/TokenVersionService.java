@@ -0,0 +1,89 @@
+package org.spring.pftsystem.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.java.Log;
+import org.spring.pftsystem.constants.Constants;
+import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Keeps the current token version (epoch) of recently seen users in memory so claims-only and
+ * stateless authentication can reject revoked tokens without a remote call.
+ * Hot entries are reloaded in the background; a bump is seen at once on this node, on other
+ * nodes through pub/sub, or at the latest after the refresh interval when Redis is unavailable.
+ */
+@Log
+@Service
+public class TokenVersionService implements MessageListener {
+
+    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TokenCacheService tokenCacheService;
+    private final LoadingCache<String, Integer> versions;
+
+    public TokenVersionService(UserRepository userRepository,
+                               MongoTemplate mongoTemplate,
+                               TokenCacheService tokenCacheService,
+                               RedisMessageListenerContainer listenerContainer,
+                               @Value("${auth.token-version.max-size:10000}") long maxSize,
+                               @Value("${auth.token-version.max-staleness-seconds:300}") long maxStalenessSeconds,
+                               @Value("${auth.token-version.refresh-seconds:60}") long refreshSeconds) {
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.tokenCacheService = tokenCacheService;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(Duration.ofSeconds(Math.min(refreshSeconds, maxStalenessSeconds)))
+                .expireAfterWrite(Duration.ofSeconds(maxStalenessSeconds))
+                .build(id -> userRepository.findById(id).map(User::getTokenVersion).orElse(null));
+        listenerContainer.addMessageListener(this, new ChannelTopic(Constants.TOKEN_INVALIDATION_CHANNEL));
+    }
+
+    // Current version of the user, null when the user no longer exists
+    public Integer currentVersion(String userId) {
+        return versions.get(userId);
+    }
+
+    // Invalidate every token issued to the user so far (role changes, stateless logout)
+    public void bumpVersion(String userId) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().inc("tokenVersion", 1),
+                User.class);
+        versions.invalidate(userId); // this node must not wait for its own pub/sub message
+        tokenCacheService.invalidate(userId);
+    }
+
+    // Role and token version change in one write: no token keeps the old role, false when the user does not exist
+    public boolean changeRole(String userId, String role) {
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().set("role", role).inc("tokenVersion", 1),
+                User.class);
+        versions.invalidate(userId);
+        tokenCacheService.invalidate(userId);
+        return result.getMatchedCount() > 0;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        versions.invalidate(separator >= 0 ? body.substring(0, separator) : body); // single-session messages carry "<userId>:<tokenId>"
+    }
+}
@@ -0,0 +1,142 @@
+package org.spring.pftsystem.services;
+
+import lombok.extern.java.Log;
+import org.spring.pftsystem.entity.schema.main.TransactionCounter;
+import org.spring.pftsystem.exception.AppIllegalArgument;
+import org.spring.pftsystem.exception.DatabaseOperationException;
+import org.spring.pftsystem.repository.TransactionsRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Per-user transaction count kept in one small document, so the TotalTransactionsLimit check is a
+ * single guarded findAndModify instead of a count over the user's transactions. The guard
+ * (count <= limit - n) makes concurrent reservations unable to overshoot the limit.
+ * A counter is seeded from a real count the first time it is needed; reconcile() corrects drift
+ * (failed inserts, deletes outside the API) from the transactions themselves, but only on counters
+ * untouched for the grace period, since a fresh reservation may still have its insert in flight.
+ */
+@Log
+@Service
+public class TransactionCounterService {
+
+    static final String LIMIT_MESSAGE = "Maximum transactions limit for user reached";
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionsRepo transactionsRepo;
+    private final Duration reconcileGrace;
+
+    public TransactionCounterService(MongoTemplate mongoTemplate, TransactionsRepo transactionsRepo,
+                                     @Value("${transaction-counter.reconcile-grace-seconds:300}") long reconcileGraceSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionsRepo = transactionsRepo;
+        this.reconcileGrace = Duration.ofSeconds(reconcileGraceSeconds);
+    }
+
+    // All or nothing: reserves n slots or throws when they would exceed the limit
+    public void reserve(String userId, int n, int limit) {
+        if (tryReserve(userId, n, limit) != null) {
+            return;
+        }
+        // no document matched: either over the limit or not seeded yet
+        if (seed(userId) && tryReserve(userId, n, limit) != null) {
+            return;
+        }
+        throw new AppIllegalArgument(LIMIT_MESSAGE, 400);
+    }
+
+    // Reserves as many of n slots as the limit allows and returns how many were granted
+    public int reserveUpTo(String userId, int n, int limit) {
+        if (tryReserve(userId, n, limit) != null) {
+            return n;
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            TransactionCounter counter = mongoTemplate.findById(userId, TransactionCounter.class);
+            if (counter == null) {
+                seed(userId);
+                continue;
+            }
+            long granted = Math.min(n, limit - counter.getCount());
+            if (granted <= 0) {
+                return 0;
+            }
+            // compare-and-set on the value read, a concurrent change means another round
+            Query query = new Query(Criteria.where("_id").is(userId).and("count").is(counter.getCount()));
+            if (mongoTemplate.updateFirst(query, touch(new Update().inc("count", granted)), TransactionCounter.class).getModifiedCount() == 1) {
+                return (int) granted;
+            }
+        }
+        throw new DatabaseOperationException("Could not reserve transaction quota, please retry");
+    }
+
+    // Returns unused reservations, records deletes (negative) or inserts made without a reservation
+    public void adjust(String userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        // no upsert: a missing counter is seeded from a real count when next needed
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)), touch(new Update().inc("count", delta)), TransactionCounter.class);
+    }
+
+    // Resets every settled counter that differs from the user's real transaction count
+    public int reconcile() {
+        int corrected = 0;
+        Instant settledBefore = Instant.now().minus(reconcileGrace);
+        Query settled = new Query(new Criteria().orOperator(
+                Criteria.where("updatedAt").lt(settledBefore),
+                Criteria.where("updatedAt").exists(false)));
+        try (Stream<TransactionCounter> counters = mongoTemplate.stream(settled, TransactionCounter.class)) {
+            for (TransactionCounter counter : (Iterable<TransactionCounter>) counters::iterator) {
+                long actual = transactionsRepo.countByUserId(counter.getUserId());
+                if (actual == counter.getCount()) {
+                    continue;
+                }
+                // only if not reserved or adjusted since read; a counter that moved meanwhile is checked again next run
+                Query query = new Query(Criteria.where("_id").is(counter.getUserId())
+                        .and("count").is(counter.getCount())
+                        .and("updatedAt").is(counter.getUpdatedAt()));
+                if (mongoTemplate.updateFirst(query, new Update().set("count", actual), TransactionCounter.class).getModifiedCount() == 1) {
+                    log.info("Transaction counter of user " + counter.getUserId() + " corrected from "
+                            + counter.getCount() + " to " + actual);
+                    corrected++;
+                }
+            }
+        }
+        return corrected;
+    }
+
+    private TransactionCounter tryReserve(String userId, int n, int limit) {
+        Query query = new Query(Criteria.where("_id").is(userId).and("count").lte(limit - n));
+        return mongoTemplate.findAndModify(query, touch(new Update().inc("count", n)),
+                FindAndModifyOptions.options().returnNew(true), TransactionCounter.class);
+    }
+
+    private static Update touch(Update update) {
+        return update.set("updatedAt", Instant.now());
+    }
+
+    // Creates the counter from a real count, true when it did not exist before
+    private boolean seed(String userId) {
+        if (mongoTemplate.exists(new Query(Criteria.where("_id").is(userId)), TransactionCounter.class)) {
+            return false;
+        }
+        long count = transactionsRepo.countByUserId(userId);
+        try {
+            mongoTemplate.insert(new TransactionCounter(userId, count));
+        } catch (DuplicateKeyException e) {
+            // seeded concurrently, that counter is just as good
+        }
+        return true;
+    }
+}
@@ -0,0 +1,209 @@
+package org.spring.pftsystem.services;
+
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.TransactionDates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Rewrites transactionDate / lastUpdatedAt still stored as strings into BSON dates, in the background
+ * after startup. Each pass walks the legacy documents in _id order in small unordered bulk writes,
+ * pausing between batches; an update only applies if the document still holds the string that was read,
+ * so a concurrent edit is never overwritten. Until no string date is left, reads accept both forms
+ * (MongoConfig) and range queries match both (TransactionRepositoryImpl); then the dual read is switched off
+ * and a marker is stored in the migrations collection, so every node starts with it off and skips the scan.
+ */
+@Log
+@Service
+public class TransactionDateMigrationService {
+
+    static final List<String> DATE_FIELDS = List.of("transactionDate", "lastUpdatedAt");
+    static final String MARKER_COLLECTION = "migrations";
+    static final String MARKER_ID = "transaction-dates";
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionRepositoryImpl transactionRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-date-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean stopping;
+    private volatile boolean migrated;
+
+    public TransactionDateMigrationService(MongoTemplate mongoTemplate,
+                                           TransactionRepositoryImpl transactionRepository,
+                                           @Value("${transaction-date-migration.enabled:true}") boolean enabled,
+                                           @Value("${transaction-date-migration.batch-size:500}") int batchSize,
+                                           @Value("${transaction-date-migration.pause-ms:200}") long pauseMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionRepository = transactionRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    // Before the first request: once any node finished the migration, no node needs the dual read again
+    @PostConstruct
+    void restoreState() {
+        try {
+            if (mongoTemplate.exists(new Query(Criteria.where("_id").is(MARKER_ID)), MARKER_COLLECTION)) {
+                migrated = true;
+                transactionRepository.closeLegacyDateWindow();
+                log.info("Transaction dates already migrated, dual read off");
+            }
+        } catch (RuntimeException e) {
+            log.warning("Could not read the transaction date migration marker, dual read stays on until checked: " + e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!migrated) {
+            executor.execute(this::migrate);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        executor.shutdownNow();
+    }
+
+    // Rewrites until no string date is left, then closes the dual-read window
+    void migrate() {
+        try {
+            long rewritten = 0;
+            while (!stopping && hasLegacyDates()) {
+                if (!enabled) {
+                    log.info("Transactions with string dates found, migration disabled: dual read stays on");
+                    return;
+                }
+                long pass = rewritePass();
+                if (pass == 0 && !stopping) {
+                    // nothing could be rewritten, do not spin; the next start tries again
+                    log.warning("Transaction date migration made no progress, dual read stays on");
+                    return;
+                }
+                rewritten += pass;
+            }
+            if (!stopping) {
+                markMigrated();
+                transactionRepository.closeLegacyDateWindow();
+                log.info("Transaction dates are BSON dates, " + rewritten + " document(s) rewritten");
+            }
+        } catch (RuntimeException e) {
+            log.severe("Transaction date migration stopped, dual read stays on: " + e.getMessage());
+        }
+    }
+
+    // One walk over the legacy documents in _id order, returns how many were rewritten
+    long rewritePass() {
+        long rewritten = 0;
+        Object lastId = null;
+        while (!stopping) {
+            Query query = new Query(legacyDates());
+            if (lastId != null) {
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            query.fields().include(DATE_FIELDS.toArray(String[]::new));
+            query.with(Sort.by("_id")).limit(batchSize);
+
+            List<Document> batch = mongoTemplate.find(query, Document.class, collection());
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).get("_id");
+            rewritten += rewrite(batch);
+            pause();
+        }
+        return rewritten;
+    }
+
+    private int rewrite(List<Document> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection());
+        for (Document row : batch) {
+            // guarded by the values read: a document edited meanwhile keeps the edit (and already has a date)
+            Criteria guard = Criteria.where("_id").is(row.get("_id"));
+            Update update = new Update();
+            for (String field : DATE_FIELDS) {
+                if (row.get(field) instanceof String legacy) {
+                    guard = guard.and(field).is(legacy);
+                    update.set(field, toDate(row.get("_id"), field, legacy, update));
+                }
+            }
+            bulk.updateOne(new Query(guard), update);
+        }
+        BulkWriteResult result = bulk.execute();
+        return result.getModifiedCount();
+    }
+
+    private static Date toDate(Object id, String field, String legacy, Update update) {
+        LocalDateTime parsed;
+        try {
+            parsed = TransactionDates.parse(legacy);
+        } catch (DateTimeParseException e) {
+            // unreadable: the creation time from the ObjectId, the original text is kept beside it
+            log.warning("Unreadable " + field + " '" + legacy + "' on transaction " + id + ", using its creation time");
+            update.set(field + "Legacy", legacy);
+            return id instanceof ObjectId objectId ? objectId.getDate() : new Date();
+        }
+        return Date.from(parsed.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private void markMigrated() {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(MARKER_ID)),
+                new Update().set("completedAt", new Date()), MARKER_COLLECTION);
+        migrated = true;
+    }
+
+    private boolean hasLegacyDates() {
+        return mongoTemplate.exists(new Query(legacyDates()), collection());
+    }
+
+    private static Criteria legacyDates() {
+        return new Criteria().orOperator(DATE_FIELDS.stream()
+                .map(field -> Criteria.where(field).type(JsonSchemaObject.Type.STRING))
+                .toList());
+    }
+
+    private String collection() {
+        return mongoTemplate.getCollectionName(Transaction.class);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopping = true;
+        }
+    }
+}
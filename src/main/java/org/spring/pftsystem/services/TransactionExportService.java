@@ -0,0 +1,160 @@
+package org.spring.pftsystem.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.java.Log;
+import org.spring.pftsystem.entity.request.TransactionFilter;
+import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.exception.AppIllegalArgument;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+@Log
+@Service
+public class TransactionExportService {
+
+    // Documents fetched per cursor round trip, the only rows held in memory at once
+    static final int CURSOR_BATCH_SIZE = 500;
+
+    private static final String[] CSV_HEADER = {
+            "id", "transactionDate", "type", "category", "amount", "currency", "beneficiary",
+            "senderDescription", "tags", "isRecurring", "lastUpdatedAt"
+    };
+
+    public enum Format {
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static Format fromParam(String format) {
+            if (format == null || format.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new AppIllegalArgument("Unsupported export format: " + format, 400);
+            }
+        }
+    }
+
+    private final TransactionRepositoryImpl transactionRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+
+    public TransactionExportService(TransactionRepositoryImpl transactionRepository, ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+        // let the generator buffer fill instead of flushing the response after every row
+        this.rowWriter = objectMapper.writerFor(Transaction.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // Streams the user's transactions (newest first) into out, one row at a time from the Mongo cursor
+    public long export(String userId, TransactionFilter filter, Format format, OutputStream out) throws IOException {
+        try (Stream<Transaction> transactions = transactionRepository.streamByUserId(userId, filter, CURSOR_BATCH_SIZE)) {
+            long rows = switch (format) {
+                case NDJSON -> writeNdjson(transactions.iterator(), out);
+                case CSV -> writeCsv(transactions.iterator(), out);
+            };
+            log.info("Exported " + rows + " transactions of user " + userId + " as " + format);
+            return rows;
+        }
+    }
+
+    private long writeNdjson(Iterator<Transaction> transactions, OutputStream out) throws IOException {
+        long rows = 0;
+        // the response stream is closed by the container, not by the generator
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            while (transactions.hasNext()) {
+                rowWriter.writeValue(generator, transactions.next());
+                generator.writeRaw('\n');
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<Transaction> transactions, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\r\n");
+        while (transactions.hasNext()) {
+            Transaction transaction = transactions.next();
+            writer.write(csvField(transaction.getId()));
+            writer.write(',');
+            writer.write(transaction.getTransactionDate() == null ? "" : transaction.getTransactionDate().toString());
+            writer.write(',');
+            writer.write(csvField(transaction.getType()));
+            writer.write(',');
+            writer.write(csvField(transaction.getCategory()));
+            writer.write(',');
+            writer.write(transaction.getAmount() == null ? "" : transaction.getAmount().toString());
+            writer.write(',');
+            writer.write(csvField(transaction.getCurrency()));
+            writer.write(',');
+            writer.write(csvField(transaction.getBeneficiary()));
+            writer.write(',');
+            writer.write(csvField(transaction.getSenderDescription()));
+            writer.write(',');
+            writer.write(csvField(joinTags(transaction.getTags())));
+            writer.write(',');
+            writer.write(transaction.getIsRecurring() == null ? "" : transaction.getIsRecurring().toString());
+            writer.write(',');
+            writer.write(transaction.getLastUpdatedAt() == null ? "" : transaction.getLastUpdatedAt().toString());
+            writer.write("\r\n");
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static String joinTags(List<String> tags) {
+        return tags == null ? null : String.join(";", tags);
+    }
+
+    // RFC 4180 quoting, and a leading quote on text that a spreadsheet would evaluate as a formula
+    static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -1,39 +1,75 @@
 package org.spring.pftsystem.services;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Validator;
 import lombok.extern.java.Log;
-import org.spring.pftsystem.entity.schema.main.SystemSettings;
+import org.bson.types.ObjectId;
+import org.spring.pftsystem.entity.request.TransactionFilter;
+import org.spring.pftsystem.entity.response.TransactionPage;
 import org.spring.pftsystem.entity.schema.sub.RecurrenceDetails;
 import org.spring.pftsystem.entity.schema.main.Transaction;
 import org.spring.pftsystem.entity.schema.main.User;
 import org.spring.pftsystem.exception.AppIllegalArgument;
+import org.spring.pftsystem.exception.BulkValidationException;
+import org.spring.pftsystem.exception.DatabaseOperationException;
 import org.spring.pftsystem.exception.NotFoundException;
-import org.spring.pftsystem.repository.SystemSettingsRepo;
 import org.spring.pftsystem.repository.TransactionsRepo;
 import org.spring.pftsystem.repository.UserRepository;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.PageCursor;
 import org.spring.pftsystem.utility.UserUtil;
+import org.springframework.data.mongodb.BulkOperationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Log
 @Service
 public class TransactionsService {
 
     private final TransactionsRepo transactionsRepo;
+    private final TransactionRepositoryImpl transactionRepository;
     private final UserRepository userRepository;
-    private final SystemSettingsRepo systemSettingsRepo;
+    private final SystemSettingsService systemSettingsService;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private final BudgetService budgetService;
+    private final DataVersionService dataVersionService;
+    private final Validator validator;
+    private final TransactionCounterService transactionCounterService;
+
+    // Bulk create limits, smaller batches are validated on the calling thread
+    static final int MAX_BULK_SIZE = 1000;
+    private static final int PARALLEL_VALIDATION_THRESHOLD = 64;
+
+    // Page size limits for the keyset-paginated listings
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
 
     // Constructor
-    public TransactionsService(TransactionsRepo transactionsRepo, UserRepository userRepository, SystemSettingsRepo systemSettingsRepo, BudgetService budgetService) {
+    public TransactionsService(TransactionsRepo transactionsRepo, TransactionRepositoryImpl transactionRepository, UserRepository userRepository, SystemSettingsService systemSettingsService, BudgetService budgetService, DataVersionService dataVersionService, Validator validator, TransactionCounterService transactionCounterService) {
         this.transactionsRepo = transactionsRepo;
+        this.transactionRepository = transactionRepository;
         this.userRepository = userRepository;
-        this.systemSettingsRepo = systemSettingsRepo;
+        this.systemSettingsService = systemSettingsService;
         this.budgetService = budgetService;
+        this.dataVersionService = dataVersionService;
+        this.validator = validator;
+        this.transactionCounterService = transactionCounterService;
+    }
+
+    @PostConstruct
+    void ensureIndexes() {
+        try {
+            transactionRepository.ensurePagingIndexes();
+        } catch (Exception e) {
+            log.warning("Could not ensure the transaction paging indexes: " + e.getMessage());
+        }
     }
 
     // Method to create a transaction
@@ -42,12 +78,7 @@ public class TransactionsService {
         transaction.setId(null); // Ensure that the id is null
         User user = UserUtil.getUserFromContext(userRepository);
 
-        long transactionCount = transactionsRepo.countByUserId(user.getId());
-        SystemSettings systemSettings = systemSettingsRepo.findFirstByOrderByIdAsc();
-
-        if(transactionCount >= systemSettings.getTotalTransactionsLimit()) {
-            throw new AppIllegalArgument("Maximum transactions limit for user reached", 400);
-        }
+        SystemSettingsService.Snapshot systemSettings = systemSettingsService.current(); // in-memory, no Mongo read
 
         //set default currency if currency is not specified
         if(transaction.getCurrency().isEmpty()) {
@@ -56,18 +87,107 @@ public class TransactionsService {
         }
 
         transaction.setUserId(user.getId());
+        transaction.setCategory(canonicalCategory(systemSettings, transaction.getCategory()));
 
-        //save the transaction
-        Transaction savedTransaction = transactionsRepo.save(transaction);
+        // atomic check-and-increment of the user's counter, throws when the limit is reached
+        transactionCounterService.reserve(user.getId(), 1, systemSettings.totalTransactionsLimit());
 
-        // update after saving transaction budget when a new expense transaction occurs
-        if (transaction.getType().equalsIgnoreCase("expense")){
-            log.info("Updating user budget");
-            budgetService.updateBudgetForUser(user.getId());
+        //save the transaction
+        Transaction savedTransaction;
+        try {
+            savedTransaction = transactionsRepo.save(transaction);
+        } catch (RuntimeException e) {
+            transactionCounterService.adjust(user.getId(), -1); // give the reserved slot back
+            throw e;
         }
+        dataVersionService.bump(user.getId());
+
+        // add a new expense to the budget without re-summing the month
+        budgetService.applyExpenseDelta(user.getId(), null, savedTransaction);
         return savedTransaction;
     }
 
+    // Method to create many transactions with one quota reservation, one bulk insert and one budget recompute
+    public List<Transaction> createTransactions(List<Transaction> transactions) {
+        if (transactions == null || transactions.isEmpty()) {
+            throw new AppIllegalArgument("At least one transaction is required", 400);
+        }
+        if (transactions.size() > MAX_BULK_SIZE) {
+            throw new AppIllegalArgument("A bulk request can contain at most " + MAX_BULK_SIZE + " transactions", 400);
+        }
+        validateAll(transactions);
+
+        User user = UserUtil.getUserFromContext(userRepository);
+
+        SystemSettingsService.Snapshot systemSettings = systemSettingsService.current(); // in-memory, no Mongo read
+
+        boolean hasExpense = false;
+        for (Transaction transaction : transactions) {
+            // ids assigned here so they are known to the response without reading the documents back
+            transaction.setId(new ObjectId().toHexString());
+            transaction.setUserId(user.getId());
+            transaction.setCategory(canonicalCategory(systemSettings, transaction.getCategory()));
+
+            //set default currency if currency is not specified
+            if(transaction.getCurrency() == null || transaction.getCurrency().isEmpty()) {
+                transaction.setCurrency(user.getSettings().getCurrency());
+            }
+            hasExpense |= "expense".equalsIgnoreCase(transaction.getType());
+        }
+
+        transactionCounterService.reserve(user.getId(), transactions.size(), systemSettings.totalTransactionsLimit());
+        try {
+            int inserted = transactionRepository.insertAll(transactions);
+            log.info("Bulk inserted " + inserted + " transactions for user " + user.getId());
+        } catch (BulkOperationException e) {
+            // unordered: the rows that did go in still count towards the version and the budget
+            log.warning("Bulk insert partially failed for user " + user.getId() + ": " + e.getErrors().size() + " error(s)");
+            transactionCounterService.adjust(user.getId(), e.getResult().getInsertedCount() - transactions.size());
+            throw new DatabaseOperationException("Only " + e.getResult().getInsertedCount() + " of "
+                    + transactions.size() + " transactions were saved");
+        } catch (RuntimeException e) {
+            transactionCounterService.adjust(user.getId(), -transactions.size()); // give the reserved slots back
+            throw e;
+        } finally {
+            dataVersionService.bump(user.getId());
+            if (hasExpense) {
+                log.info("Updating user budget");
+                budgetService.updateBudgetForUser(user.getId());
+            }
+        }
+        return transactions;
+    }
+
+    // Validation accepts any spelling of a category, the configured one is stored
+    private static String canonicalCategory(SystemSettingsService.Snapshot settings, String category) {
+        String canonical = settings.canonicalCategory(category);
+        return canonical != null ? canonical : category;
+    }
+
+    // Bean Validation of every item, messages carry the item index like "[3] amount: Amount must be positive"
+    private void validateAll(List<Transaction> transactions) {
+        IntStream indexes = IntStream.range(0, transactions.size());
+        if (transactions.size() >= PARALLEL_VALIDATION_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        List<String> errors = indexes
+                .boxed()
+                .flatMap(i -> {
+                    Transaction transaction = transactions.get(i);
+                    if (transaction == null) {
+                        return Stream.of("[" + i + "] transaction is required");
+                    }
+                    return validator.validate(transaction).stream()
+                            .map(violation ->
+                                    "[" + i + "] " + violation.getPropertyPath() + ": " + violation.getMessage());
+                })
+                .toList();
+
+        if (!errors.isEmpty()) {
+            throw new BulkValidationException(errors);
+        }
+    }
+
     // Method to get a transaction by id
     public Transaction getTransactionById(String id) {
         return transactionsRepo.findById(id).orElseThrow(() -> new NotFoundException("Transaction not found"));
@@ -103,6 +223,38 @@ public class TransactionsService {
         return transactionList;
     }
 
+    // Method to get a page of the current user's transactions
+    public TransactionPage getTransactionsPageOfUser(TransactionFilter filter, String cursor, Integer limit) {
+        return getTransactionsPage(UserUtil.getCurrentUserId(), filter, cursor, limit);
+    }
+
+    // Method to get a page of transactions, userId null pages across all users (admin)
+    public TransactionPage getTransactionsPage(String userId, TransactionFilter filter, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+
+        // one extra row tells whether another page exists without a count query
+        List<Transaction> rows = transactionRepository.findPage(userId, filter, PageCursor.decode(cursor), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Transaction last = items.get(items.size() - 1);
+            nextCursor = transactionRepository.cursorOf(last).encode();
+        }
+        return new TransactionPage(items, items.size(), hasMore, nextCursor);
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new AppIllegalArgument("Page size must be at least 1", 400);
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
     // Method to update a transaction
     public Transaction updateTransaction(String id, Transaction transaction) {
 
@@ -115,8 +267,9 @@ public class TransactionsService {
 
         // Now update the fields of the transaction
         Transaction updatedTransaction = transactionOriginal.get();  // Get the original transaction for updating
+        Transaction before = budgetView(updatedTransaction); // the fields below are overwritten in place
         updatedTransaction.setType(transaction.getType());
-        updatedTransaction.setCategory(transaction.getCategory());
+        updatedTransaction.setCategory(canonicalCategory(systemSettingsService.current(), transaction.getCategory()));
         updatedTransaction.setTags(transaction.getTags());
         updatedTransaction.setBeneficiary(transaction.getBeneficiary());
         updatedTransaction.setSenderDescription(transaction.getSenderDescription());
@@ -153,19 +306,35 @@ public class TransactionsService {
 
 
         updatedTransaction.setTransactionDate(transactionOriginal.get().getTransactionDate());
-        updatedTransaction.setLastUpdatedAt(java.time.LocalDateTime.now().toString());
-        return transactionsRepo.save(updatedTransaction);  // Save and return the updated transaction
+        updatedTransaction.setLastUpdatedAt(java.time.LocalDateTime.now());
+        Transaction savedTransaction = transactionsRepo.save(updatedTransaction);  // Save and return the updated transaction
+        dataVersionService.bump(savedTransaction.getUserId());
+        budgetService.applyExpenseDelta(savedTransaction.getUserId(), before, savedTransaction);
+        return savedTransaction;
+    }
+
+    // Copy of the fields the budget depends on
+    private static Transaction budgetView(Transaction transaction) {
+        Transaction view = new Transaction();
+        view.setType(transaction.getType());
+        view.setAmount(transaction.getAmount());
+        view.setCurrency(transaction.getCurrency());
+        view.setTransactionDate(transaction.getTransactionDate());
+        return view;
     }
 
 
     // Method to delete a transaction
     public String deleteTransaction(String id) {
-        try {
-            transactionsRepo.deleteById(id);
-            return "Transaction deleted successfully";
-        }catch (Exception e) {
+        // only the delete that actually removed the document adjusts the counter and the budget
+        Transaction deleted = transactionRepository.removeById(id);
+        if (deleted == null) {
             throw new NotFoundException("Transaction not found");
         }
+        transactionCounterService.adjust(deleted.getUserId(), -1);
+        dataVersionService.bump(deleted.getUserId());
+        budgetService.applyExpenseDelta(deleted.getUserId(), deleted, null);
+        return "Transaction deleted successfully";
     }
 
 
@@ -192,10 +361,12 @@ public class TransactionsService {
                     // Create a new transaction
                     Transaction newTransaction = createTransactionFromRecurring(transaction);
                     transactionsRepo.save(newTransaction);
+                    transactionCounterService.adjust(newTransaction.getUserId(), 1);
 
                     // Update the next execution date
                     updateNextExecutionDate(transaction);
                     transactionsRepo.save(transaction);
+                    dataVersionService.bump(transaction.getUserId());
 
                     processedCount++;
                 }
@@ -226,7 +397,7 @@ public class TransactionsService {
         newTransaction.setRecurrence(null);
 
         // Set current timestamp
-        String now = java.time.LocalDateTime.now().toString();
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
         newTransaction.setTransactionDate(now);
         newTransaction.setLastUpdatedAt(now);
 
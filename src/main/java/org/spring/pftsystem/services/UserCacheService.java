@@ -0,0 +1,84 @@
+package org.spring.pftsystem.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.java.Log;
+import org.bson.Document;
+import org.spring.pftsystem.constants.Constants;
+import org.spring.pftsystem.entity.schema.main.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bounded near cache of User documents by id.
+ * Writes invalidate the entry on this node and, over pub/sub, on the others; an entry is never
+ * older than the max staleness, which also bounds a missed invalidation message.
+ * The stored document is cached and every caller gets a User freshly mapped from it, so changing one
+ * before a save does not leak into the cache, and no field of the document is ever left out of the copy.
+ */
+@Log
+@Service
+public class UserCacheService implements MessageListener {
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, Document> users;
+
+    public UserCacheService(MongoTemplate mongoTemplate,
+                            StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry,
+                            @Value("${user-cache.max-size:10000}") long maxSize,
+                            @Value("${user-cache.max-staleness-seconds:30}") long maxStalenessSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.redisTemplate = redisTemplate;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(maxStalenessSeconds))
+                .recordStats()
+                .build();
+        // cache.size, cache.gets (hit/miss), cache.evictions tagged cache=users
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+        // token version bumps change the document too
+        listenerContainer.addMessageListener(this, List.of(
+                new ChannelTopic(Constants.USER_CHANGED_CHANNEL),
+                new ChannelTopic(Constants.TOKEN_INVALIDATION_CHANNEL)));
+    }
+
+    // Missing users are not cached
+    public Optional<User> findById(String id) {
+        Document document = users.get(id, key -> mongoTemplate.findById(key, Document.class, mongoTemplate.getCollectionName(User.class)));
+        return Optional.ofNullable(document).map(stored -> mongoTemplate.getConverter().read(User.class, stored));
+    }
+
+    // Call after the user document was written
+    public void invalidate(String id) {
+        users.invalidate(id);
+        try {
+            redisTemplate.convertAndSend(Constants.USER_CHANGED_CHANNEL, id);
+        } catch (Exception e) {
+            // Other nodes catch up after max staleness
+            log.warning("Failed to publish user invalidation: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        users.invalidate(separator >= 0 ? body.substring(0, separator) : body); // token messages may carry "<userId>:<tokenId>"
+    }
+}
@@ -14,21 +14,18 @@ import org.springframework.stereotype.Service;
 public class UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
+    private final DataVersionService dataVersionService;
 
-    private UserDetailsService(UserRepository userRepository) {
+    private UserDetailsService(UserRepository userRepository, UserCacheService userCacheService, DataVersionService dataVersionService) {
         this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
+        this.dataVersionService = dataVersionService;
     }
     public UserDetails getUserDetails(){
 
         User user = UserUtil.getUserFromContext(userRepository);
-        UserDetails userDetails = new UserDetails();
-
-        //filter details and assign to userDetails
-        userDetails.setEmail(user.getEmail());
-        userDetails.setFirstName(user.getFirstName());
-        userDetails.setLastName(user.getLastName());
-
-        return userDetails;
+        return toUserDetails(user);
     }
 
     public UserDetails updateUserDetails (UserDetails userDetails) {
@@ -41,8 +38,7 @@ public class UserDetailsService {
         }
 
         // check for email change
-        User originalUser = userRepository.findById(user.getId()).orElseThrow(() -> new UserNotFoundException());
-        if(!originalUser.getEmail().equals(userDetailsEmail)){
+        if(!userDetailsEmail.equals(user.getEmail())){
             log.info("Changing email");
             User existing = userRepository.findByEmail(userDetails.getEmail()).orElse(null);
             if(existing != null){
@@ -52,14 +48,28 @@ public class UserDetailsService {
         }
         user.setFirstName(userDetails.getFirstName());
         user.setLastName(userDetails.getLastName());
-        user.setTimeStamp(null);
 
+        boolean updated;
         try{
-            userRepository.save(user);
-            return getUserDetails(); // use method to get saved user details
+            // only the profile fields: the user may be a cached copy, a full save could restore an old role or tokenVersion
+            updated = userRepository.updateProfile(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName());
         }catch (Exception e){
             throw new DatabaseOperationException(e.getMessage());
         }
+        if (!updated) {
+            throw new UserNotFoundException();
+        }
+        userCacheService.invalidate(user.getId());
+        dataVersionService.bump(user.getId()); // the cached dashboard and its ETag include the profile
+        return toUserDetails(user);
+    }
 
+    //filter details and assign to userDetails
+    private UserDetails toUserDetails(User user) {
+        UserDetails userDetails = new UserDetails();
+        userDetails.setEmail(user.getEmail());
+        userDetails.setFirstName(user.getFirstName());
+        userDetails.setLastName(user.getLastName());
+        return userDetails;
     }
 }
@@ -3,6 +3,7 @@ package org.spring.pftsystem.services;
 import org.spring.pftsystem.entity.schema.main.User;
 import org.spring.pftsystem.entity.schema.sub.UserSettings;
 import org.spring.pftsystem.exception.DatabaseOperationException;
+import org.spring.pftsystem.exception.UserNotFoundException;
 import org.spring.pftsystem.repository.UserRepository;
 import org.spring.pftsystem.utility.UserUtil;
 import org.springframework.stereotype.Service;
@@ -11,9 +12,13 @@ import org.springframework.stereotype.Service;
 public class UserSettingsService {
 
     private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
+    private final DataVersionService dataVersionService;
 
-    public UserSettingsService(UserRepository userRepository) {
+    public UserSettingsService(UserRepository userRepository, UserCacheService userCacheService, DataVersionService dataVersionService) {
         this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
+        this.dataVersionService = dataVersionService;
     }
 
     public UserSettings getUserSettings(){
@@ -24,15 +29,19 @@ public class UserSettingsService {
     public UserSettings updateSettings (UserSettings userSettings ) {
 
         User user = UserUtil.getUserFromContext(userRepository);
-        user.setSettings(userSettings);
 
+        boolean updated;
         try{
-            userRepository.save(user);
-            return userSettings;
+            updated = userRepository.updateSettings(user.getId(), userSettings); // not a full save of a possibly stale user
         }catch (Exception e){
             throw new DatabaseOperationException(e.getMessage());
         }
-
+        if (!updated) {
+            throw new UserNotFoundException();
+        }
+        userCacheService.invalidate(user.getId());
+        dataVersionService.bump(user.getId()); // the cached dashboard and its ETag include the settings
+        return userSettings;
     }
 
 }
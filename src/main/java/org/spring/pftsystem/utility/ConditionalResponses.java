@@ -0,0 +1,25 @@
+package org.spring.pftsystem.utility;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+public class ConditionalResponses {
+
+    // 304 without computing the body when If-None-Match matches, otherwise 200 with the ETag
+    public static <T> ResponseEntity<T> okWithETag(WebRequest request, String etag, Supplier<T> body) {
+        if (etag == null) {
+            return ResponseEntity.ok(body.get()); // version unavailable, no conditional handling
+        }
+
+        // private: per-user data, no-cache: clients may store it but must revalidate
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+}
@@ -0,0 +1,42 @@
+package org.spring.pftsystem.utility;
+
+import org.spring.pftsystem.entity.schema.main.User;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Request-scoped holder for the authenticated User document.
+ * The user is loaded at most once per request, or taken from what authentication already loaded.
+ */
+public final class CurrentUser {
+
+    private static final String USER_ATTRIBUTE = CurrentUser.class.getName() + ".USER";
+
+    private CurrentUser() {
+    }
+
+    // Return the user held for this request, loading it on first access
+    public static User resolve(Supplier<User> loader) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return loader.get(); // outside a request (scheduled jobs), nothing to share
+        }
+
+        User user = (User) attributes.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user == null) {
+            user = loader.get();
+            attributes.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    // Hand over a user that was already loaded during authentication
+    public static void prime(User user) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
@@ -5,9 +5,12 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import io.jsonwebtoken.Claims;
 import lombok.extern.java.Log;
+import org.spring.pftsystem.services.TokenCacheService;
+import org.spring.pftsystem.services.TokenVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -26,11 +29,22 @@ public class JwtFilter extends OncePerRequestFilter {
     private UserDetailsService userDetailsService;
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private TokenCacheService tokenCacheService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    // Build the principal from verified claims instead of loading the user on every request
+    @Value("${auth.claims-only:false}")
+    private boolean claimsOnly;
+
+    // Validate signature + token epoch only, no Redis session lookup on the hot path
+    @Value("${auth.stateless:false}")
+    private boolean stateless;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -43,28 +57,31 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         String jwtToken = authHeader.substring(7);
-        String username;
 
-        try {
-            username = jwtUtil.parseClaims(jwtToken).getSubject();
-        } catch (Exception e) {
-            log.severe("Invalid JWT token: " + e.getMessage());
+        // Signature and expiry are checked exactly once per request
+        JwtVerification verification = jwtUtil.verify(jwtToken);
+        if (!verification.isValid()) {
+            log.severe("Invalid JWT token (" + verification.getFailure() + "): " + verification.getMessage());
             filterChain.doFilter(request, response);
             return;
         }
 
+        Claims claims = verification.getClaims();
+        String username = claims.getSubject();
+
         if (username != null) {
-            String storedToken = redisTemplate.opsForValue().get("TOKEN_" + username);
-            if (storedToken == null) {
-                log.warning("Token not found in Redis. Authentication rejected.");
+            if (stateless ? !hasCurrentVersion(username, claims) : !tokenCacheService.isActive(username, claims.getId(), claims.getExpiration())) {
+                log.warning("Token revoked or session not found. Authentication rejected.");
                 filterChain.doFilter(request, response);
                 return;
             }
 
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = claimsOnly
+                        ? userDetailsFromClaims(username, claims)
+                        : userDetailsService.loadUserByUsername(username);
 
-                if (jwtUtil.isValid(jwtToken)) {
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities()
                     );
@@ -78,4 +95,27 @@ public class JwtFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // Principal from subject + role claims, rejected when the token version is outdated
+    private UserDetails userDetailsFromClaims(String username, Claims claims) {
+        String role = claims.get("role", String.class);
+
+        // stateless mode has already compared the version
+        if (role == null || (!stateless && !hasCurrentVersion(username, claims))) {
+            log.warning("Outdated token version. Authentication rejected for UID : " + username);
+            return null;
+        }
+
+        return org.springframework.security.core.userdetails.User.withUsername(username)
+                .password("")
+                .roles(role)
+                .build();
+    }
+
+    // Token epoch ("ver" claim) matches the user's current one, answered from memory when warm
+    private boolean hasCurrentVersion(String username, Claims claims) {
+        Integer tokenVersion = claims.get("ver", Integer.class);
+        Integer currentVersion = tokenVersionService.currentVersion(username);
+        return currentVersion != null && currentVersion == (tokenVersion == null ? 0 : tokenVersion);
+    }
+}
@@ -0,0 +1,151 @@
+package org.spring.pftsystem.utility;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Derives every JWT key once at startup and resolves verification keys by the "kid" header.
+ * New tokens are signed with the current key (HS256 secret or ES256 private key); previous keys stay
+ * available for verification until the tokens they signed have expired. A node configured with
+ * ES256 public keys only can verify tokens without holding any signing secret.
+ */
+@Log
+@Component
+public class JwtKeyManager extends SigningKeyResolverAdapter {
+
+    private final SignatureAlgorithm algorithm;
+    private final Key signingKey;
+    private final String signingKeyId;
+    private final Key legacyKey; // tokens issued before kid headers were added
+    private final Map<String, Key> verificationKeys;
+
+    public JwtKeyManager(@Value("${auth.jwt.algorithm:HS256}") String algorithm,
+                         @Value("${spring.jwt.secret:}") String secret,
+                         @Value("${auth.jwt.previous-secrets:}") String previousSecrets,
+                         @Value("${auth.jwt.ec.private-key:}") String ecPrivateKey,
+                         @Value("${auth.jwt.ec.public-key:}") String ecPublicKey,
+                         @Value("${auth.jwt.ec.previous-public-keys:}") String ecPreviousPublicKeys) {
+        this.algorithm = SignatureAlgorithm.forName(algorithm);
+        Map<String, Key> keys = new LinkedHashMap<>();
+
+        Key hmacKey = secret.isBlank() ? null : hmacKey(secret);
+        if (hmacKey != null) {
+            keys.put(keyId(hmacKey.getEncoded()), hmacKey);
+        }
+        for (String previous : split(previousSecrets)) {
+            Key key = hmacKey(previous);
+            keys.putIfAbsent(keyId(key.getEncoded()), key);
+        }
+
+        Key ecPublic = ecPublicKey.isBlank() ? null : ecPublicKey(ecPublicKey);
+        if (ecPublic != null) {
+            keys.put(keyId(ecPublic.getEncoded()), ecPublic);
+        }
+        for (String previous : split(ecPreviousPublicKeys)) {
+            Key key = ecPublicKey(previous);
+            keys.putIfAbsent(keyId(key.getEncoded()), key);
+        }
+
+        if (this.algorithm == SignatureAlgorithm.HS256) {
+            if (hmacKey == null) {
+                throw new IllegalStateException("spring.jwt.secret is required for HS256");
+            }
+            this.signingKey = hmacKey;
+            this.signingKeyId = keyId(hmacKey.getEncoded());
+        } else if (this.algorithm == SignatureAlgorithm.ES256) {
+            if (ecPublic == null) {
+                throw new IllegalStateException("auth.jwt.ec.public-key is required for ES256");
+            }
+            // no private key: this node only verifies
+            this.signingKey = ecPrivateKey.isBlank() ? null : ecPrivateKey(ecPrivateKey);
+            this.signingKeyId = keyId(ecPublic.getEncoded());
+        } else {
+            throw new IllegalStateException("Unsupported JWT algorithm : " + algorithm);
+        }
+
+        this.legacyKey = hmacKey;
+        this.verificationKeys = Map.copyOf(keys);
+        log.info("JWT keys loaded, signing with " + this.algorithm + " kid " + signingKeyId + ", " + keys.size() + " verification key(s)");
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public Key getSigningKey() {
+        if (signingKey == null) {
+            throw new IllegalStateException("No signing key configured, this node can only verify tokens");
+        }
+        return signingKey;
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String keyId = header.getKeyId();
+        Key key = keyId == null ? legacyKey : verificationKeys.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id : " + keyId);
+        }
+        return key;
+    }
+
+    private static Key hmacKey(String secret) {
+        return new SecretKeySpec(Decoders.BASE64.decode(secret.trim()), SignatureAlgorithm.HS256.getJcaName());
+    }
+
+    private static Key ecPublicKey(String base64) {
+        try {
+            return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(Decoders.BASE64.decode(base64.trim())));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid EC public key", e);
+        }
+    }
+
+    private static Key ecPrivateKey(String base64) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(Decoders.BASE64.decode(base64.trim())));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid EC private key", e);
+        }
+    }
+
+    // Short, stable id derived from the key material, so rotating the key rotates the kid
+    static String keyId(byte[] keyMaterial) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(keyMaterial);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String[] split(String values) {
+        return Arrays.stream(values.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toArray(String[]::new);
+    }
+}
@@ -1,10 +1,9 @@
 package org.spring.pftsystem.utility;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.SignatureException;
 import lombok.extern.java.Log;
-import org.spring.pftsystem.entity.schema.main.SystemSettings;
-import org.spring.pftsystem.repository.SystemSettingsRepo;
-import org.springframework.beans.factory.annotation.Value;
+import org.spring.pftsystem.services.SystemSettingsService;
 import org.springframework.stereotype.Component;
 
 import java.util.Date;
@@ -14,56 +13,72 @@ import java.util.Map;
 @Component
 public class JwtUtil {
 
-    @Value("${spring.jwt.secret}")
-    private String secret;
+    private final SystemSettingsService systemSettingsService;
 
-    private final SystemSettingsRepo systemSettingsRepo;
-
-    public JwtUtil(SystemSettingsRepo systemSettingsRepo) {
-        this.systemSettingsRepo = systemSettingsRepo;
+    // Keys are derived once by the key manager, the parser resolves them by kid and is shared by all requests
+    private final JwtKeyManager keyManager;
+    private final JwtParser parser;
 
+    public JwtUtil(SystemSettingsService systemSettingsService, JwtKeyManager keyManager) {
+        this.systemSettingsService = systemSettingsService;
+        this.keyManager = keyManager;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(keyManager)
+                .build();
     }
 
 
     // Generate the JWT token
     public String generateToken(String id, Map<String, Object> claims) {
+        return generateToken(id, claims, nextExpiry());
+    }
 
-        SystemSettings settings = systemSettingsRepo.findFirstByOrderByIdAsc();
-        int expiryTimeInMinutes = settings.getJWTExpirationTime();
-
-        if(expiryTimeInMinutes == 0){
-            log.warning("JWT Expiry time is not set in the system settings. Defaulting to 60 minutes.");
-            expiryTimeInMinutes = 60;
-        }
-
+    // Generate the JWT token with a known expiry (callers that also index the session)
+    public String generateToken(String id, Map<String, Object> claims, Date expiresAt) {
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyManager.getSigningKeyId())
                 .setClaims(claims)
                 .setSubject(id)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + (long) expiryTimeInMinutes * 60 * 1000)) // 1 hour expiry
-                .signWith(SignatureAlgorithm.HS256, secret)
+                .setExpiration(expiresAt)
+                .signWith(keyManager.getSigningKey(), keyManager.getAlgorithm())
                 .compact();
     }
 
-    // Parse claims from the token
-    public Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Expiry for a token issued now, from the system settings
+    public Date nextExpiry() {
+        int expiryTimeInMinutes = systemSettingsService.current().jwtExpirationTime(); // in-memory, no Mongo read
+
+        if(expiryTimeInMinutes == 0){
+            log.warning("JWT Expiry time is not set in the system settings. Defaulting to 60 minutes.");
+            expiryTimeInMinutes = 60;
+        }
+        return new Date(System.currentTimeMillis() + (long) expiryTimeInMinutes * 60 * 1000); // 1 hour expiry
     }
 
-    // Validate the token
-    public boolean isValid(String token) {
+    // Verify the signature once and return the claims, or the reason the token was rejected
+    public JwtVerification verify(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(secret)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return JwtVerification.verified(parser.parseClaimsJws(token).getBody());
+        } catch (ExpiredJwtException e) {
+            return JwtVerification.failed(JwtVerification.Failure.EXPIRED, e.getMessage());
+        } catch (ClaimJwtException e) {
+            return JwtVerification.failed(JwtVerification.Failure.INVALID_CLAIMS, e.getMessage());
+        } catch (SignatureException e) {
+            return JwtVerification.failed(JwtVerification.Failure.INVALID_SIGNATURE, e.getMessage());
+        } catch (MalformedJwtException e) {
+            return JwtVerification.failed(JwtVerification.Failure.MALFORMED, e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            return JwtVerification.failed(JwtVerification.Failure.UNSUPPORTED, e.getMessage());
         } catch (JwtException e) {
-            return false;
+            return JwtVerification.failed(JwtVerification.Failure.MALFORMED, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return JwtVerification.failed(JwtVerification.Failure.EMPTY, e.getMessage());
         }
     }
+
+    // Parse claims from the token
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
 }
@@ -0,0 +1,39 @@
+package org.spring.pftsystem.utility;
+
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a single JWT verification: the verified claims, or the reason the token was rejected.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class JwtVerification {
+
+    public enum Failure {
+        EXPIRED,
+        INVALID_CLAIMS,
+        INVALID_SIGNATURE,
+        MALFORMED,
+        UNSUPPORTED,
+        EMPTY
+    }
+
+    private final Claims claims;
+    private final Failure failure;
+    private final String message;
+
+    public static JwtVerification verified(Claims claims) {
+        return new JwtVerification(claims, null, null);
+    }
+
+    public static JwtVerification failed(Failure failure, String message) {
+        return new JwtVerification(null, failure, message);
+    }
+
+    public boolean isValid() {
+        return failure == null;
+    }
+}
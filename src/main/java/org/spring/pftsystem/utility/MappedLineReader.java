@@ -0,0 +1,94 @@
+package org.spring.pftsystem.utility;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads UTF-8 lines from a file through read-only memory-mapped windows, so large statement
+ * files are paged in by the OS instead of being copied onto the heap. Only the current line
+ * is buffered; lines longer than the limit are rejected to keep memory bounded.
+ */
+public class MappedLineReader implements Closeable {
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    static final int MAX_LINE_LENGTH = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position; // offset of the next unread byte
+    private byte[] line = new byte[512];
+
+    public MappedLineReader(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedLineReader(Path file, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+
+        // skip a UTF-8 byte order mark, common in spreadsheet exports
+        if (size >= 3 && byteAt(0) == (byte) 0xEF && byteAt(1) == (byte) 0xBB && byteAt(2) == (byte) 0xBF) {
+            position = 3;
+        }
+    }
+
+    // Next line without its terminator (\n or \r\n), or null at the end of the file
+    public String readLine() throws IOException {
+        if (position >= size) {
+            return null;
+        }
+
+        int length = 0;
+        while (position < size) {
+            byte b = byteAt(position++);
+            if (b == '\n') {
+                break;
+            }
+            if (length == line.length) {
+                if (length >= MAX_LINE_LENGTH) {
+                    throw new IOException("Line longer than " + MAX_LINE_LENGTH + " bytes at offset " + position);
+                }
+                line = Arrays.copyOf(line, Math.min(length * 2, MAX_LINE_LENGTH));
+            }
+            line[length++] = b;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Bytes consumed so far, for progress reporting
+    public long position() {
+        return position;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    private byte byteAt(long offset) throws IOException {
+        if (window == null || offset < windowStart || offset >= windowStart + window.limit()) {
+            windowStart = offset;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowSize, size - offset));
+        }
+        return window.get((int) (offset - windowStart));
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
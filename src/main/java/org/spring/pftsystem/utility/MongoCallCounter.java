@@ -0,0 +1,42 @@
+package org.spring.pftsystem.utility;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts MongoDB commands issued while serving the current request.
+ * The sync driver notifies listeners on the calling thread, so the request attributes are available.
+ */
+public class MongoCallCounter implements CommandListener {
+
+    private static final String COUNT_ATTRIBUTE = MongoCallCounter.class.getName() + ".COUNT";
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+
+        AtomicInteger count = (AtomicInteger) attributes.getAttribute(COUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (count == null) {
+            count = new AtomicInteger();
+            attributes.setAttribute(COUNT_ATTRIBUTE, count, RequestAttributes.SCOPE_REQUEST);
+        }
+        count.incrementAndGet();
+    }
+
+    // Commands issued so far in the current request
+    public static int currentCount() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return 0;
+        }
+        AtomicInteger count = (AtomicInteger) attributes.getAttribute(COUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return count == null ? 0 : count.get();
+    }
+}
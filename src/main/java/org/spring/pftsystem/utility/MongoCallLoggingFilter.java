@@ -0,0 +1,32 @@
+package org.spring.pftsystem.utility;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.java.Log;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.logging.Level;
+
+/**
+ * Debug log of the number of MongoDB commands each request needed.
+ */
+@Log
+@Component
+public class MongoCallLoggingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (log.isLoggable(Level.FINE)) {
+                log.fine("Mongo calls for " + request.getMethod() + " " + request.getRequestURI() + " : " + MongoCallCounter.currentCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.spring.pftsystem.utility;
+
+import org.spring.pftsystem.exception.AppIllegalArgument;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the (transactionDate, id) of the last item of a page.
+ * Clients pass it back unchanged to fetch the next page.
+ * transactionDate is the stored value: DATE_PREFIX + epoch millis for a BSON date, or a legacy string date.
+ */
+public record PageCursor(String transactionDate, String id) {
+
+    public static final String DATE_PREFIX = "@";
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = transactionDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null or blank means "first page"
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            if (split <= 0 || split == raw.length() - 1) {
+                throw new AppIllegalArgument("Invalid cursor", 400);
+            }
+            return new PageCursor(raw.substring(0, split), raw.substring(split + 1));
+        } catch (IllegalArgumentException e) {
+            throw new AppIllegalArgument("Invalid cursor", 400);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.spring.pftsystem.utility;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Collapses concurrent identical computations into one execution on this node.
+ * The first caller for a key runs the computation, callers arriving while it runs wait and share its
+ * result (or exception). Nothing is kept once the computation finishes, so this is not a cache.
+ * Exported as singleflight.calls{operation, role=leader|waiter}; waiter / total is the coalescing ratio.
+ */
+@Component
+public class SingleFlight {
+
+    // userId is empty for computations that are not user specific
+    public record Key(String userId, String operation, String params) {
+    }
+
+    @FunctionalInterface
+    public interface Computation<T, E extends Exception> {
+        T compute() throws E;
+    }
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> leaders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> waiters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("singleflight.inflight", inFlight, ConcurrentMap::size).register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T execute(Key key, Computation<T, E> computation) throws E {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+
+        if (running != null) {
+            counter(waiters, key.operation(), "waiter").increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw (E) rethrowUnchecked(e.getCause());
+            }
+        }
+
+        counter(leaders, key.operation(), "leader").increment();
+        try {
+            T result = computation.compute();
+            mine.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    // Order-independent form of a collection parameter, null and empty are the same
+    public static String canonical(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return "";
+        }
+        return values.stream().map(String::valueOf).sorted().collect(Collectors.joining(","));
+    }
+
+    private Exception rethrowUnchecked(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return (Exception) cause; // the checked exception type of the shared computation
+    }
+
+    private Counter counter(ConcurrentMap<String, Counter> counters, String operation, String role) {
+        return counters.computeIfAbsent(operation, op -> Counter.builder("singleflight.calls")
+                .tag("operation", op)
+                .tag("role", role)
+                .register(meterRegistry));
+    }
+}
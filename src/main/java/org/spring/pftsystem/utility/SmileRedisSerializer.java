@@ -0,0 +1,113 @@
+package org.spring.pftsystem.utility;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import lombok.extern.java.Log;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Binary Jackson (Smile) serializer for Redis values with class type hints on every value, including
+ * final types such as records and Long, so each value reads back as the type it was written as.
+ * Every value starts with a 3 byte header: 'P' 'S' + schema version. Unknown properties are ignored,
+ * so nodes on an older build can read values written by a newer one (and the other way round).
+ * Values written by the JDK or JSON serializers are still readable during a rolling deploy.
+ */
+@Log
+public class SmileRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC_0 = 'P';
+    static final byte MAGIC_1 = 'S';
+    // Bump when a change cannot be read by the previous build; a value of any other version is read as a miss.
+    // 2: type hints on final types too (version 1 left them out)
+    static final byte SCHEMA_VERSION = 2;
+    private static final int HEADER_LENGTH = 3;
+
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+    private static final byte JSON_OBJECT_START = '{';
+    private static final byte JSON_ARRAY_START = '[';
+
+    private final ObjectMapper mapper;
+    private final JdkSerializationRedisSerializer jdkFallback = new JdkSerializationRedisSerializer();
+    private final GenericJackson2JsonRedisSerializer jsonFallback = new GenericJackson2JsonRedisSerializer();
+
+    public SmileRedisSerializer() {
+        BasicPolymorphicTypeValidator typeValidator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("org.spring.pftsystem.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.lang.")
+                .allowIfSubType("java.time.")
+                .build();
+
+        this.mapper = SmileMapper.builder()
+                .findAndAddModules()
+                .activateDefaultTyping(typeValidator, ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (value instanceof NullValue) {
+            return header(); // cached null, header only
+        }
+        try {
+            byte[] body = mapper.writeValueAsBytes(value);
+            byte[] bytes = Arrays.copyOf(header(), HEADER_LENGTH + body.length);
+            System.arraycopy(body, 0, bytes, HEADER_LENGTH, body.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("Could not write Smile value: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        if (bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1) {
+            if (bytes[2] != SCHEMA_VERSION) {
+                // Written by another build, treat as a miss so the value is reloaded and rewritten
+                log.fine("Skipping Redis value with schema version " + bytes[2]);
+                return null;
+            }
+            if (bytes.length == HEADER_LENGTH) {
+                return NullValue.INSTANCE;
+            }
+            try {
+                return mapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, Object.class);
+            } catch (IOException e) {
+                throw new SerializationException("Could not read Smile value: " + e.getMessage(), e);
+            }
+        }
+
+        // Values written before the switch to Smile
+        if (bytes[0] == JDK_STREAM_MAGIC) {
+            return jdkFallback.deserialize(bytes);
+        }
+        if (bytes[0] == JSON_OBJECT_START || bytes[0] == JSON_ARRAY_START) {
+            return jsonFallback.deserialize(bytes);
+        }
+        throw new SerializationException("Unknown Redis value format");
+    }
+
+    private static byte[] header() {
+        return new byte[]{MAGIC_0, MAGIC_1, SCHEMA_VERSION};
+    }
+}
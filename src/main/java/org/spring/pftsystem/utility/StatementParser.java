@@ -0,0 +1,268 @@
+package org.spring.pftsystem.utility;
+
+import org.spring.pftsystem.exception.AppIllegalArgument;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pulls statement rows one at a time from a {@link MappedLineReader}. A malformed row raises
+ * {@link RowException} and parsing continues with the next one; a file that cannot be read
+ * as the format at all raises {@link AppIllegalArgument}.
+ */
+public abstract class StatementParser {
+
+    public enum Format {
+        CSV, OFX;
+
+        // explicit format first, otherwise the file extension
+        public static Format of(String format, String filename) {
+            String value = format;
+            if ((value == null || value.isBlank()) && filename != null && filename.lastIndexOf('.') >= 0) {
+                value = filename.substring(filename.lastIndexOf('.') + 1);
+            }
+            if (value != null) {
+                value = value.trim().toUpperCase(Locale.ROOT);
+                if (value.equals("QFX")) {
+                    return OFX;
+                }
+                for (Format candidate : values()) {
+                    if (candidate.name().equals(value)) {
+                        return candidate;
+                    }
+                }
+            }
+            throw new AppIllegalArgument("Unsupported statement format, expected csv or ofx", 400);
+        }
+    }
+
+    // amount is signed: negative for money going out
+    public record Row(LocalDate date, BigDecimal amount, String description, String memo,
+                      String type, String category, String currency, String externalId) {
+    }
+
+    public static class RowException extends Exception {
+        public RowException(String message) {
+            super(message);
+        }
+    }
+
+    protected final MappedLineReader reader;
+
+    protected StatementParser(MappedLineReader reader) {
+        this.reader = reader;
+    }
+
+    public static StatementParser of(Format format, MappedLineReader reader) {
+        return switch (format) {
+            case CSV -> new Csv(reader);
+            case OFX -> new Ofx(reader);
+        };
+    }
+
+    // Next row, or null at the end of the statement
+    public abstract Row next() throws IOException, RowException;
+
+    static BigDecimal parseAmount(String value) throws RowException {
+        if (value == null || value.isBlank()) {
+            throw new RowException("Missing amount");
+        }
+        try {
+            return new BigDecimal(value.trim().replace(",", "").replace(" ", ""));
+        } catch (NumberFormatException e) {
+            throw new RowException("Invalid amount: " + value);
+        }
+    }
+
+    // yyyy-MM-dd (optionally followed by a time) or yyyyMMdd
+    static LocalDate parseDate(String value) throws RowException {
+        if (value == null || value.isBlank()) {
+            throw new RowException("Missing date");
+        }
+        String trimmed = value.trim();
+        try {
+            if (trimmed.length() >= 10 && trimmed.charAt(4) == '-') {
+                return LocalDate.parse(trimmed.substring(0, 10));
+            }
+            if (trimmed.length() >= 8) {
+                return LocalDate.parse(trimmed.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+            }
+        } catch (DateTimeParseException e) {
+            // reported below
+        }
+        throw new RowException("Invalid date: " + value);
+    }
+
+    /**
+     * Header-driven CSV: date, amount and description are required, type, category, currency,
+     * memo and id are optional. Quoted fields follow RFC 4180 but may not span lines.
+     */
+    static class Csv extends StatementParser {
+
+        private Map<String, Integer> columns;
+
+        Csv(MappedLineReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public Row next() throws IOException, RowException {
+            if (columns == null) {
+                readHeader();
+            }
+
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            List<String> fields = split(line);
+            return new Row(
+                    parseDate(field(fields, "date")),
+                    parseAmount(field(fields, "amount")),
+                    field(fields, "description"),
+                    field(fields, "memo"),
+                    field(fields, "type"),
+                    field(fields, "category"),
+                    field(fields, "currency"),
+                    field(fields, "id"));
+        }
+
+        private void readHeader() throws IOException {
+            String header = reader.readLine();
+            columns = new HashMap<>();
+            if (header == null) {
+                return;
+            }
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+                columns.putIfAbsent(switch (name) {
+                    case "transactiondate", "posted", "posted date", "booking date" -> "date";
+                    case "beneficiary", "payee", "name" -> "description";
+                    case "reference", "notes" -> "memo";
+                    case "fitid", "transaction id" -> "id";
+                    default -> name;
+                }, i);
+            }
+            if (!columns.containsKey("date") || !columns.containsKey("amount") || !columns.containsKey("description")) {
+                throw new AppIllegalArgument("CSV header must contain date, amount and description columns", 400);
+            }
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * OFX 1.x (SGML) and 2.x (XML): each STMTTRN aggregate becomes a row. Tags are scanned in
+     * order across lines, so leaf elements with or without closing tags both work.
+     */
+    static class Ofx extends StatementParser {
+
+        private String defaultCurrency;
+        private String line;  // current line, kept across calls when it holds several transactions
+        private int cursor = -1; // index of the next '<' in line
+
+        Ofx(MappedLineReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public Row next() throws IOException, RowException {
+            Map<String, String> transaction = null;
+            while (true) {
+                if (line == null || cursor < 0) {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                    cursor = line.indexOf('<');
+                    continue;
+                }
+                int end = line.indexOf('>', cursor);
+                if (end < 0) {
+                    cursor = -1;
+                    continue;
+                }
+                String tag = line.substring(cursor + 1, end).trim().toUpperCase(Locale.ROOT);
+                int next = line.indexOf('<', end);
+                String value = unescape(line.substring(end + 1, next < 0 ? line.length() : next).trim());
+                cursor = next;
+
+                if (tag.equals("STMTTRN")) {
+                    transaction = new HashMap<>();
+                } else if (tag.equals("/STMTTRN") && transaction != null) {
+                    return toRow(transaction);
+                } else if (tag.equals("CURDEF")) {
+                    defaultCurrency = value;
+                } else if (transaction != null && !tag.startsWith("/") && !value.isEmpty()) {
+                    transaction.putIfAbsent(tag, value);
+                }
+            }
+        }
+
+        private Row toRow(Map<String, String> transaction) throws RowException {
+            String name = transaction.get("NAME");
+            String memo = transaction.get("MEMO");
+            return new Row(
+                    parseDate(transaction.get("DTPOSTED")),
+                    parseAmount(transaction.get("TRNAMT")),
+                    name != null ? name : memo,
+                    name != null ? memo : null,
+                    null,
+                    null,
+                    transaction.getOrDefault("CURSYM", defaultCurrency),
+                    transaction.get("FITID"));
+        }
+
+        private static String unescape(String value) {
+            return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+        }
+    }
+}
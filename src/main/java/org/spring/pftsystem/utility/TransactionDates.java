@@ -0,0 +1,62 @@
+package org.spring.pftsystem.utility;
+
+import org.spring.pftsystem.exception.AppIllegalArgument;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Parsing of the date strings that reach transactionDate: legacy stored values and API parameters.
+ * Accepts the formats the application has written or compared against over time: LocalDateTime.toString()
+ * at any precision, Instant/offset strings ("...Z", "...+05:30") converted to the server zone (the zone
+ * Spring Data uses for LocalDateTime <-> BSON Date), and plain dates as the start of that day.
+ */
+public final class TransactionDates {
+
+    private TransactionDates() {
+    }
+
+    public static LocalDateTime parse(String value) {
+        String text = value.trim();
+        if (text.length() == 10) {
+            return LocalDate.parse(text).atStartOfDay();
+        }
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            // "Z" or an explicit offset
+            return OffsetDateTime.parse(text).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+    }
+
+    // Inclusive lower bound from a request parameter, null when absent
+    public static LocalDateTime lowerBound(String value, String name) {
+        return isBlank(value) ? null : parseParam(value, name);
+    }
+
+    // Exclusive upper bound from an inclusive request parameter: a plain date covers that whole day
+    public static LocalDateTime upperBoundExclusive(String value, String name) {
+        if (isBlank(value)) {
+            return null;
+        }
+        LocalDateTime to = parseParam(value, name);
+        // BSON dates keep milliseconds, so the next millisecond is the first excluded instant
+        return value.trim().length() == 10 ? to.plusDays(1) : to.truncatedTo(ChronoUnit.MILLIS).plus(1, ChronoUnit.MILLIS);
+    }
+
+    private static LocalDateTime parseParam(String value, String name) {
+        try {
+            return parse(value);
+        } catch (DateTimeParseException e) {
+            throw new AppIllegalArgument("Invalid " + name + " date: " + value, 400);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
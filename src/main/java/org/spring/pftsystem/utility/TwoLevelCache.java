@@ -0,0 +1,117 @@
+package org.spring.pftsystem.utility;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Spring cache backed by a node-local Caffeine cache (L1) in front of a shared Redis cache (L2).
+ * Reads fill L1 from L2, writes go to both and tell the other nodes to drop their L1 copy.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Object> local;
+    private final org.springframework.cache.Cache remote;
+    private final BiConsumer<String, Object> invalidationPublisher; // (cache name, key or null for clear)
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    public TwoLevelCache(String name,
+                         Cache<Object, Object> local,
+                         org.springframework.cache.Cache remote,
+                         BiConsumer<String, Object> invalidationPublisher,
+                         MeterRegistry meterRegistry) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.remoteHits = Counter.builder("cache.l2.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.remoteMisses = Counter.builder("cache.l2.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        Object storeValue = toStoreValue(wrapper.get());
+        local.put(key, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Caffeine runs the loader once per key on this node, concurrent callers wait for it
+        Object storeValue = local.get(key, k -> {
+            ValueWrapper wrapper = remote.get(k);
+            if (wrapper != null) {
+                remoteHits.increment();
+                return toStoreValue(wrapper.get());
+            }
+            remoteMisses.increment();
+            try {
+                T value = valueLoader.call();
+                remote.put(k, value);
+                return toStoreValue(value);
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        });
+        return (T) fromStoreValue(storeValue);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(key, toStoreValue(value));
+        invalidationPublisher.accept(name, key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(key);
+        invalidationPublisher.accept(name, key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    // Applied when another node changed an entry, L2 already holds the new state
+    void invalidateLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+}
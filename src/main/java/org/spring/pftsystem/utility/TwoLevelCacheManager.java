@@ -0,0 +1,98 @@
+package org.spring.pftsystem.utility;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.java.Log;
+import org.spring.pftsystem.config.TwoLevelCacheProperties;
+import org.spring.pftsystem.constants.Constants;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Builds a {@link TwoLevelCache} per cache name and keeps L1 copies coherent across nodes.
+ * Invalidation messages are "<nodeId>|<cacheName>|<key>", an empty key clears the whole cache.
+ */
+@Log
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    private final RedisCacheManager remoteCacheManager;
+    private final TwoLevelCacheProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheManager remoteCacheManager,
+                                TwoLevelCacheProperties properties,
+                                StringRedisTemplate redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        listenerContainer.addMessageListener(this, new ChannelTopic(Constants.CACHE_INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    public org.springframework.cache.Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TwoLevelCache createCache(String name) {
+        TwoLevelCacheProperties.Spec spec = properties.specFor(name);
+        Cache<Object, Object> local = Caffeine.newBuilder()
+                .maximumSize(spec.getLocalMaxSize())
+                .expireAfterWrite(spec.getLocalTtl())
+                .recordStats()
+                .build();
+        // cache.gets / cache.puts / cache.evictions tagged with the cache name
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name, "level", "l1");
+
+        return new TwoLevelCache(name, local, remoteCacheManager.getCache(name), this::publishInvalidation, meterRegistry);
+    }
+
+    private void publishInvalidation(String cacheName, Object key) {
+        String message = nodeId + SEPARATOR + cacheName + SEPARATOR + (key == null ? "" : key.toString());
+        try {
+            redisTemplate.convertAndSend(Constants.CACHE_INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            // Other nodes fall back to their L1 TTL
+            log.warning("Failed to publish cache invalidation: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return; // malformed or our own write
+        }
+
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(parts[2].isEmpty() ? null : parts[2]);
+        }
+    }
+}
@@ -7,28 +7,25 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.util.Optional;
-
 public class UserUtil {
 
     public static User getUserFromContext(UserRepository userRepository) {
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String id = getCurrentUserId();
 
-        // Get user details
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        // Once per request from the user near cache, repeated calls reuse the same document
+        return CurrentUser.resolve(() -> userRepository.findCachedById(id).orElseThrow(UserNotFoundException::new));
 
-        // Access user information
-        String id = userDetails.getUsername(); // UserID from context
+    }
 
-        Optional<User> user = userRepository.findById(id);
+    // UserID from context without loading the user document (used as cache key)
+    public static String getCurrentUserId() {
 
-        if (user.isPresent()) {
-            return user.get();
-        }
-        else{
-            throw new UserNotFoundException();
-        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        // Get user details
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
+        return userDetails.getUsername();
     }
 }
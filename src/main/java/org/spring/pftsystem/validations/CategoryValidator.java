@@ -2,26 +2,26 @@ package org.spring.pftsystem.validations;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import org.spring.pftsystem.entity.schema.main.SystemSettings;
-import org.spring.pftsystem.repository.SystemSettingsRepo;
+import org.spring.pftsystem.services.SystemSettingsService;
 import org.springframework.beans.factory.annotation.Autowired;
 
 public class CategoryValidator implements ConstraintValidator<ValidCategory, String> {
 
     @Autowired
-    private SystemSettingsRepo systemSettingsRepo;
+    private SystemSettingsService systemSettingsService;
 
     @Override
     public boolean isValid(String category, ConstraintValidatorContext context) {
-        if (category == null || systemSettingsRepo == null) {
+        if (category == null || systemSettingsService == null) {
             return false;
         }
 
-        boolean isValid = systemSettingsRepo.findAll().get(0).getCategories().contains(category);
+        SystemSettingsService.Snapshot settings = systemSettingsService.current(); // in-memory snapshot
+        boolean isValid = settings.isValidCategory(category); // hashed, normalized lookup
         if (!isValid) {
             context.disableDefaultConstraintViolation();
             context.buildConstraintViolationWithTemplate(
-                    "Invalid Category. Available categories are: " + String.join(", ", systemSettingsRepo.findAll().get(0).getCategories())
+                    "Invalid Category. Available categories are: " + String.join(", ", settings.categories())
             ).addConstraintViolation();
         }
 
@@ -0,0 +1,77 @@
+package org.spring.pftsystem.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.spring.pftsystem.utility.JwtKeyManager;
+import org.spring.pftsystem.utility.JwtUtil;
+import org.spring.pftsystem.utility.JwtVerification;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of JwtUtil for each supported algorithm (HS256 shared secret, ES256 key pair).
+ * Run with: mvn test-compile exec:java -Dexec.mainClass=org.spring.pftsystem.benchmark.JwtSigningBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    private static final String SECRET = "a7690505e17048e02bde918d0a54f00474f47a1428edf724fc39a936459321c8bd8628221900fa01dbb9f166c58b8fcc179233180c252a28eb24a868a63fc85d9";
+
+    @Param({"HS256", "ES256"})
+    public String algorithm;
+
+    private JwtUtil jwtUtil;
+    private Map<String, Object> claims;
+    private Date expiresAt;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtKeyManager keyManager;
+        if ("ES256".equals(algorithm)) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair keyPair = generator.generateKeyPair();
+            keyManager = new JwtKeyManager("ES256", "", "",
+                    Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                    Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()), "");
+        } else {
+            keyManager = new JwtKeyManager("HS256", SECRET, "", "", "", "");
+        }
+
+        jwtUtil = new JwtUtil(null, keyManager);
+        claims = Map.of("role", "user", "ver", 0);
+        expiresAt = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        token = jwtUtil.generateToken("user123", claims, expiresAt);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtil.generateToken("user123", claims, expiresAt);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        JwtVerification verification = jwtUtil.verify(token);
+        return verification.isValid();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtSigningBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
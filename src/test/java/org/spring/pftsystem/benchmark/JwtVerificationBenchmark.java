@@ -0,0 +1,77 @@
+package org.spring.pftsystem.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.spring.pftsystem.utility.JwtKeyManager;
+import org.spring.pftsystem.utility.JwtUtil;
+import org.spring.pftsystem.utility.JwtVerification;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT cost in JwtFilter: the old path (parseClaims + isValid, each building a parser
+ * from the raw secret) against the single verify() call on the pre-keyed parser.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass=org.spring.pftsystem.benchmark.JwtVerificationBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "a7690505e17048e02bde918d0a54f00474f47a1428edf724fc39a936459321c8bd8628221900fa01dbb9f166c58b8fcc179233180c252a28eb24a868a63fc85d9";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(null, new JwtKeyManager("HS256", SECRET, "", "", "", ""));
+        token = Jwts.builder()
+                .claim("role", "user")
+                .setSubject("user123")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String before() {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(SECRET)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        try {
+            Jwts.parserBuilder()
+                    .setSigningKey(SECRET)
+                    .build()
+                    .parseClaimsJws(token);
+        } catch (JwtException e) {
+            return null;
+        }
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String after() {
+        JwtVerification verification = jwtUtil.verify(token);
+        return verification.isValid() ? verification.getClaims().getSubject() : null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package org.spring.pftsystem.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.spring.pftsystem.entity.schema.main.Budget;
+import org.spring.pftsystem.entity.schema.sub.CategoryLimit;
+import org.spring.pftsystem.utility.SmileRedisSerializer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanoseconds per serialize / deserialize of a cached Budget for each Redis value serializer,
+ * the encoded size is printed once per trial. Budget is not Serializable, so JDK serialization is not compared.
+ * Run with: mvn test-compile exec:java -Dexec.mainClass=org.spring.pftsystem.benchmark.RedisSerializerBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"json", "smile"})
+    public String format;
+
+    private RedisSerializer<Object> serializer;
+    private Budget budget;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = switch (format) {
+            case "json" -> new GenericJackson2JsonRedisSerializer();
+            default -> new SmileRedisSerializer();
+        };
+
+        budget = new Budget();
+        budget.setId("65f1c2a9e4b0a1b2c3d4e5f6");
+        budget.setUserID("65f1c2a9e4b0a1b2c3d4e5f7");
+        budget.setMonthlyLimit(150000);
+        budget.setCurrentExpenditure(48250.75f);
+        budget.setCurrency("LKR");
+        budget.setCategoryLimitsOn(true);
+        List<CategoryLimit> limits = new ArrayList<>();
+        for (String category : List.of("Food", "Transport", "Entertainment", "Bills", "Healthcare")) {
+            CategoryLimit limit = new CategoryLimit();
+            limit.setCategory(category);
+            limit.setLimitAmount(20000);
+            limit.setCurrentExpenditure(7500);
+            limits.add(limit);
+        }
+        budget.setCategoryLimits(limits);
+
+        bytes = serializer.serialize(budget);
+        System.out.println(format + " bytes per Budget: " + bytes.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(budget);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RedisSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,104 @@
+package org.spring.pftsystem.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.lettuce.core.RedisException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.exception.TooManyRequestsException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthRateLimiterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthRateLimiter authRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        authRateLimiter = new AuthRateLimiter(redisTemplate, meterRegistry, true, 3, 3, 2, 2, 1000);
+    }
+
+    @Test
+    void testCheck_AllowedByBothBuckets() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        assertDoesNotThrow(() -> authRateLimiter.check("10.0.0.1", "Test@Example.com"));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("RATE_IP_10.0.0.1")), any(Object[].class));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("RATE_EMAIL_test@example.com")), any(Object[].class));
+    }
+
+    @Test
+    void testCheck_RejectedBySharedBucket() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> authRateLimiter.check("10.0.0.1", null));
+
+        assertEquals(AuthRateLimiter.REJECTED_MESSAGE, exception.getMessage());
+        assertEquals(1, meterRegistry.get("auth.ratelimit.rejected").tag("source", "redis").counter().count());
+    }
+
+    @Test
+    void testCheck_LocalPreFilterSkipsRedis() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        for (int i = 0; i < 3; i++) {
+            authRateLimiter.check("10.0.0.1", null);
+        }
+        assertThrows(TooManyRequestsException.class, () -> authRateLimiter.check("10.0.0.1", null));
+
+        verify(redisTemplate, times(3)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        assertEquals(1, meterRegistry.get("auth.ratelimit.rejected").tags("scope", "ip", "source", "local").counter().count());
+    }
+
+    @Test
+    void testCheck_EmailBucketOnlyDrainedByFailures() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        // more requests naming the email than its capacity, from different clients
+        for (int i = 0; i < 4; i++) {
+            authRateLimiter.check("10.0.0." + i, "victim@example.com");
+        }
+        verify(redisTemplate, times(4)).execute(any(RedisScript.class), eq(List.of("RATE_EMAIL_victim@example.com")),
+                any(), any(), eq("0"));
+
+        authRateLimiter.recordFailure("Victim@example.com");
+        authRateLimiter.recordFailure("victim@example.com");
+
+        assertThrows(TooManyRequestsException.class, () -> authRateLimiter.check("10.0.0.9", "victim@example.com"));
+        assertEquals(1, meterRegistry.get("auth.ratelimit.rejected").tags("scope", "email", "source", "local").counter().count());
+    }
+
+    @Test
+    void testCheck_FailsOpenWhenRedisIsDown() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenThrow(new RedisException("down"));
+
+        assertDoesNotThrow(() -> authRateLimiter.check("10.0.0.1", "test@example.com"));
+    }
+
+    @Test
+    void testCheck_Disabled() {
+        AuthRateLimiter disabled = new AuthRateLimiter(redisTemplate, meterRegistry, false, 3, 3, 2, 2, 1000);
+
+        disabled.check("10.0.0.1", "test@example.com");
+
+        verifyNoInteractions(redisTemplate);
+    }
+}
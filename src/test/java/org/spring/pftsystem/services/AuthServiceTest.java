@@ -1,25 +1,29 @@
 package org.spring.pftsystem.services;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import io.lettuce.core.RedisException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.spring.pftsystem.entity.response.AuthResponse;
 import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.exception.UserNotFoundException;
 import org.spring.pftsystem.repository.UserRepository;
 import org.spring.pftsystem.utility.JwtUtil;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.spring.pftsystem.utility.UserUtil;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.security.auth.login.CredentialNotFoundException;
+import java.util.Date;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -31,10 +35,25 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private StringRedisTemplate redisTemplate;
+    private JwtUtil jwtUtil;
 
     @Mock
-    private JwtUtil jwtUtil;
+    private TokenCacheService tokenCacheService;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private UserCacheService userCacheService;
 
     @InjectMocks
     private AuthService authService;
@@ -47,8 +66,10 @@ class AuthServiceTest {
     @Test
     void testRegister() {
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(passwordHashingService.encode("password")).thenReturn("hashedPassword");
         String result = authService.register("test@example.com", "password");
         assertEquals("User Registered Successfully", result);
+        verify(passwordHashingService, times(1)).encode("password");
         verify(userRepository, times(1)).save(any(User.class));
     }
 
@@ -65,22 +86,184 @@ class AuthServiceTest {
         assertThrows(IllegalArgumentException.class, () -> authService.logout("invalid_token"));
     }
 
-    // Mocking ValueOperations for testLoginSuccess
     @Test
     void testLoginSuccess() throws CredentialNotFoundException {
         User user = new User();
         user.setId("1");
         user.setEmail("test@example.com");
-        user.setPassword(new BCryptPasswordEncoder().encode("password"));
+        user.setPassword("hashedPassword");
+        Date expiresAt = new Date(System.currentTimeMillis() + 3_600_000);
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
-        when(jwtUtil.generateToken(anyString(), anyMap())).thenReturn("token");
+        when(passwordHashingService.matches("password", "hashedPassword")).thenReturn(true);
+        when(jwtUtil.nextExpiry()).thenReturn(expiresAt);
+        when(jwtUtil.generateToken(anyString(), anyMap(), eq(expiresAt))).thenReturn("token");
+        when(refreshTokenService.issue(eq("1"), isNull(), eq(0), anyString()))
+                .thenReturn(new RefreshTokenService.Issued("fam1", "refresh"));
+
+        AuthResponse response = authService.login("test@example.com", "password");
+        assertEquals("token", response.getToken());
+        assertEquals("refresh", response.getRefreshToken());
+        verify(sessionService, times(1)).register(eq("1"), anyString(), eq(expiresAt), isNull());
+        verify(tokenCacheService, never()).invalidate(anyString()); // other devices stay signed in
+    }
+
+    @Test
+    void testRefreshSuccess() throws CredentialNotFoundException {
+        Date expiresAt = new Date(System.currentTimeMillis() + 3_600_000);
+        User user = new User();
+        user.setId("1");
+        user.setRole("user");
+        user.setTokenVersion(2);
+        when(refreshTokenService.rotate(eq("refresh"), anyString()))
+                .thenReturn(new RefreshTokenService.Rotation("1", "administrator", 2, "fam1", "oldJti", "nextRefresh"));
+        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+        when(jwtUtil.nextExpiry()).thenReturn(expiresAt);
+        when(jwtUtil.generateToken(anyString(), anyMap(), eq(expiresAt))).thenReturn("token");
+
+        AuthResponse response = authService.refresh("refresh");
+
+        assertEquals("token", response.getToken());
+        assertEquals("nextRefresh", response.getRefreshToken());
+        // the role is the user's current one, not the one stored with the token family
+        verify(jwtUtil, times(1)).generateToken(eq("1"), argThat(claims -> "user".equals(claims.get("role")) && Integer.valueOf(2).equals(claims.get("ver"))), eq(expiresAt));
+        verify(sessionService, times(1)).register(eq("1"), anyString(), eq(expiresAt), eq("oldJti"));
+        verify(passwordHashingService, never()).matches(anyString(), anyString());
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void testRefreshReuseRevokesBoundSession() throws CredentialNotFoundException {
+        when(refreshTokenService.rotate(eq("stolen"), anyString())).thenThrow(new RefreshTokenService.ReuseDetected("1", "jti1"));
+
+        assertThrows(CredentialNotFoundException.class, () -> authService.refresh("stolen"));
+        verify(sessionService, times(1)).revoke("1", "jti1");
+        verify(tokenCacheService, times(1)).invalidateSession("1", "jti1");
+    }
+
+    @Test
+    void testRefreshRejectedAfterVersionBump() throws CredentialNotFoundException {
+        User user = new User();
+        user.setId("1");
+        user.setRole("user");
+        user.setTokenVersion(3);
+        when(refreshTokenService.rotate(eq("refresh"), anyString()))
+                .thenReturn(new RefreshTokenService.Rotation("1", "administrator", 2, "fam1", "oldJti", "nextRefresh"));
+        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+
+        assertThrows(CredentialNotFoundException.class, () -> authService.refresh("refresh"));
+        verify(refreshTokenService, times(1)).revokeFamily("1", "fam1");
+        verify(jwtUtil, never()).generateToken(anyString(), anyMap(), any(Date.class));
+    }
+
+    @Test
+    void testChangeRoleBumpsTokenVersion() {
+        when(tokenVersionService.changeRole("1", "user")).thenReturn(true);
+
+        authService.changeRole("1", "user");
+
+        verify(tokenVersionService, times(1)).changeRole("1", "user");
+        verify(userCacheService, times(1)).invalidate("1");
+    }
 
-        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    @Test
+    void testChangeRoleRejectsUnknownRoleAndUser() {
+        assertThrows(IllegalArgumentException.class, () -> authService.changeRole("1", "root"));
+        when(tokenVersionService.changeRole("missing", "user")).thenReturn(false);
+        assertThrows(UserNotFoundException.class, () -> authService.changeRole("missing", "user"));
+    }
+
+    @Test
+    void testRefreshRejected() throws CredentialNotFoundException {
+        when(refreshTokenService.rotate(eq("reused"), anyString())).thenThrow(new CredentialNotFoundException("Refresh token reused"));
+
+        assertThrows(CredentialNotFoundException.class, () -> authService.refresh("reused"));
+        verify(jwtUtil, never()).generateToken(anyString(), anyMap(), any(Date.class));
+        verify(sessionService, never()).register(anyString(), anyString(), any(Date.class), any());
+    }
+
+    @Test
+    void testLogoutRevokesOnlyCurrentSession() {
+        User user = new User();
+        user.setId("1");
+        Claims claims = Jwts.claims().setId("jti1");
+        claims.put("fam", "fam1");
+        when(jwtUtil.parseClaims("token")).thenReturn(claims);
+
+        try (MockedStatic<UserUtil> userUtil = mockStatic(UserUtil.class)) {
+            userUtil.when(() -> UserUtil.getUserFromContext(userRepository)).thenReturn(user);
+
+            assertTrue(authService.logout("Bearer token"));
+        }
+
+        verify(sessionService, times(1)).revoke("1", "jti1");
+        verify(tokenCacheService, times(1)).invalidateSession("1", "jti1");
+        verify(refreshTokenService, times(1)).revokeFamily("1", "fam1");
+        verify(sessionService, never()).revokeAll(anyString());
+    }
+
+    @Test
+    void testLogoutAllRevokesEverySession() {
+        User user = new User();
+        user.setId("1");
+
+        try (MockedStatic<UserUtil> userUtil = mockStatic(UserUtil.class)) {
+            userUtil.when(() -> UserUtil.getUserFromContext(userRepository)).thenReturn(user);
+
+            assertTrue(authService.logoutAll());
+        }
+
+        verify(sessionService, times(1)).revokeAll("1");
+        verify(tokenCacheService, times(1)).invalidate("1");
+        verify(refreshTokenService, times(1)).revokeAll("1");
+    }
+
+    @Test
+    void testStatelessLogoutBumpsEpoch() {
+        ReflectionTestUtils.setField(authService, "stateless", true);
+        User user = new User();
+        user.setId("1");
+
+        try (MockedStatic<UserUtil> userUtil = mockStatic(UserUtil.class)) {
+            userUtil.when(() -> UserUtil.getUserFromContext(userRepository)).thenReturn(user);
+
+            assertTrue(authService.logout("Bearer token"));
+        }
+
+        verify(tokenVersionService, times(1)).bumpVersion("1");
+        verifyNoInteractions(sessionService);
+        verify(jwtUtil, never()).parseClaims(anyString());
+    }
+
+    @Test
+    void testStatelessLoginSkipsSessionIndex() throws CredentialNotFoundException {
+        ReflectionTestUtils.setField(authService, "stateless", true);
+        User user = new User();
+        user.setId("1");
+        user.setPassword("hashedPassword");
+        Date expiresAt = new Date(System.currentTimeMillis() + 3_600_000);
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("password", "hashedPassword")).thenReturn(true);
+        when(jwtUtil.nextExpiry()).thenReturn(expiresAt);
+        when(jwtUtil.generateToken(anyString(), anyMap(), eq(expiresAt))).thenReturn("token");
+        when(refreshTokenService.issue(eq("1"), isNull(), eq(0), anyString())).thenThrow(new RedisException("down"));
+
+        AuthResponse response = authService.login("test@example.com", "password");
+
+        assertEquals("token", response.getToken());
+        assertNull(response.getRefreshToken());
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    void testLoginWrongPassword() {
+        User user = new User();
+        user.setId("1");
+        user.setPassword("hashedPassword");
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("wrong", "hashedPassword")).thenReturn(false);
 
-        String token = authService.login("test@example.com", "password");
-        assertNotNull(token);
-        verify(valueOperations, times(1)).set("TOKEN_1", "token", 1, TimeUnit.HOURS);
+        assertThrows(CredentialNotFoundException.class, () -> authService.login("test@example.com", "wrong"));
+        verify(jwtUtil, never()).generateToken(anyString(), anyMap(), any(Date.class));
     }
 
 }
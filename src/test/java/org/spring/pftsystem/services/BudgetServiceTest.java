@@ -1,28 +1,39 @@
 package org.spring.pftsystem.services;
 
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.spring.pftsystem.entity.schema.main.Budget;
+import org.spring.pftsystem.entity.schema.main.Transaction;
 import org.spring.pftsystem.entity.schema.main.User;
 import org.spring.pftsystem.entity.schema.sub.UserSettings;
 import org.spring.pftsystem.exception.AppIllegalArgument;
 import org.spring.pftsystem.exception.NotFoundException;
 import org.spring.pftsystem.repository.BudgetRepository;
-import org.spring.pftsystem.repository.TransactionsRepo;
 import org.spring.pftsystem.repository.UserRepository;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
 import org.spring.pftsystem.utility.UserUtil;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,7 +46,13 @@ class BudgetServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private TransactionsRepo transactionsRepo;
+    private TransactionRepositoryImpl transactionRepository;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
 
     @InjectMocks
     private BudgetService budgetService;
@@ -176,21 +193,75 @@ class BudgetServiceTest {
     @Test
     void testDeleteBudget_Success() {
         // Arrange
-        when(budgetRepository.existsById("budget123")).thenReturn(true);
+        Budget budget = new Budget();
+        budget.setId("budget123");
+        budget.setUserID("user123");
+        when(budgetRepository.findById("budget123")).thenReturn(Optional.of(budget));
 
         // Act
         budgetService.deleteBudget("budget123");
 
         // Assert
         verify(budgetRepository).deleteById("budget123");
+        verify(dataVersionService).bump("user123");
     }
 
     @Test
     void testDeleteBudget_NotFound() {
         // Arrange
-        when(budgetRepository.existsById("budget123")).thenReturn(false);
+        when(budgetRepository.findById("budget123")).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(NotFoundException.class, () -> budgetService.deleteBudget("budget123"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testApplyExpenseDelta_UpdateAppliesDifference() {
+        // Arrange: a 100 USD expense of this month edited down to 40 USD
+        Transaction before = expense(100.0, LocalDateTime.now());
+        Transaction after = expense(40.0, LocalDateTime.now());
+        when(mongoTemplate.updateFirst(any(Query.class), any(AggregationUpdate.class), eq(Budget.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        budgetService.applyExpenseDelta("user123", before, after);
+
+        // Assert: one pipeline update, each side guarded by the budget currency
+        ArgumentCaptor<AggregationUpdate> update = ArgumentCaptor.forClass(AggregationUpdate.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Budget.class));
+        List<Document> pipeline = update.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        Document max = pipeline.get(0).get("$set", Document.class).get("currentExpenditure", Document.class);
+        List<?> add = ((Document) max.getList("$max", Object.class).get(1)).getList("$add", Object.class);
+        assertEquals("$currentExpenditure", add.get(0));
+        assertEquals(40.0, ((Document) add.get(1)).getList("$cond", Object.class).get(1));
+        assertEquals(-100.0, ((Document) add.get(2)).getList("$cond", Object.class).get(1));
+        assertTrue(pipeline.get(1).get("$set", Document.class).containsKey("warning"));
+        verify(dataVersionService).bump("user123");
+        verify(transactionRepository, never()).findInDateRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void testApplyExpenseDelta_IgnoresIncomeAndOtherMonths() {
+        // Arrange
+        Transaction income = expense(50.0, LocalDateTime.now());
+        income.setType("Income");
+        Transaction lastMonth = expense(50.0, LocalDateTime.now().minusMonths(1));
+
+        // Act
+        budgetService.applyExpenseDelta("user123", null, income);
+        budgetService.applyExpenseDelta("user123", lastMonth, null);
+
+        // Assert
+        verifyNoInteractions(mongoTemplate);
+        verify(dataVersionService, never()).bump(any());
+    }
+
+    private Transaction expense(double amount, LocalDateTime date) {
+        Transaction transaction = new Transaction();
+        transaction.setType("Expense");
+        transaction.setAmount(amount);
+        transaction.setCurrency("USD");
+        transaction.setTransactionDate(date);
+        return transaction;
+    }
+}
@@ -0,0 +1,74 @@
+package org.spring.pftsystem.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.entity.response.CategoryValidationResult;
+import org.spring.pftsystem.entity.schema.main.SystemSettings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryServiceTest {
+
+    @Mock
+    private SystemSettingsService systemSettingsService;
+
+    @InjectMocks
+    private CategoryService categoryService;
+
+    @BeforeEach
+    void setUp() {
+        SystemSettings settings = new SystemSettings("settings123", 1000, 100, Arrays.asList("Food", "Transport"), 60);
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(settings));
+    }
+
+    @Test
+    void testIsValid_IgnoresCaseAndSurroundingWhitespace() {
+        assertTrue(categoryService.isValid(" food "));
+        assertTrue(categoryService.isValid("TRANSPORT"));
+        assertFalse(categoryService.isValid("Rent"));
+        assertFalse(categoryService.isValid(null));
+    }
+
+    @Test
+    void testCanonicalName_ReturnsConfiguredSpelling() {
+        assertEquals("Food", categoryService.canonicalName(" food "));
+        assertEquals("Transport", categoryService.canonicalName("TRANSPORT"));
+        assertNull(categoryService.canonicalName("Rent"));
+    }
+
+    @Test
+    void testValidateAll_ReportsDistinctInvalidCategories() {
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(i % 2 == 0 ? "Food" : "Rent");
+        }
+        batch.add("Travel");
+
+        CategoryValidationResult result = categoryService.validateAll(batch);
+
+        assertEquals(1001, result.getChecked());
+        assertEquals(501, result.getInvalidCount());
+        assertEquals(List.of("Rent", "Travel"), result.getInvalidCategories());
+        assertEquals(List.of("Food", "Transport"), result.getAvailableCategories());
+        verify(systemSettingsService, times(1)).current(); // one snapshot for the whole batch
+    }
+
+    @Test
+    void testValidateAll_EmptyBatch() {
+        CategoryValidationResult result = categoryService.validateAll(List.of());
+
+        assertEquals(0, result.getChecked());
+        assertEquals(0, result.getInvalidCount());
+        assertTrue(result.getInvalidCategories().isEmpty());
+    }
+}
@@ -42,7 +42,7 @@ public class CustomUserDetailsServiceTest {
     @Test
     void loadUserByUsername_WhenUserExists_ReturnsUserDetails() {
         // Arrange
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(mockUser));
+        when(userRepository.findCachedById(USER_ID)).thenReturn(Optional.of(mockUser));
 
         // Act
         UserDetails userDetails = userDetailsService.loadUserByUsername(USER_ID);
@@ -54,13 +54,13 @@ public class CustomUserDetailsServiceTest {
         assertTrue(userDetails.getAuthorities().stream()
                 .anyMatch(a -> a.getAuthority().equals("ROLE_" + ROLE)));
 
-        verify(userRepository, times(1)).findById(USER_ID);
+        verify(userRepository, times(1)).findCachedById(USER_ID);
     }
 
     @Test
     void loadUserByUsername_WhenUserDoesNotExist_ThrowsUsernameNotFoundException() {
         // Arrange
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+        when(userRepository.findCachedById(USER_ID)).thenReturn(Optional.empty());
 
         // Act & Assert
         Exception exception = assertThrows(UsernameNotFoundException.class, () -> {
@@ -68,20 +68,20 @@ public class CustomUserDetailsServiceTest {
         });
 
         assertEquals("User not found", exception.getMessage());
-        verify(userRepository, times(1)).findById(USER_ID);
+        verify(userRepository, times(1)).findCachedById(USER_ID);
     }
 
     @Test
     void loadUserByUsername_WhenRepositoryThrowsException_PropagatesException() {
         // Arrange
-        when(userRepository.findById(USER_ID)).thenThrow(new RuntimeException("Database error"));
+        when(userRepository.findCachedById(USER_ID)).thenThrow(new RuntimeException("Database error"));
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> {
             userDetailsService.loadUserByUsername(USER_ID);
         });
 
-        verify(userRepository, times(1)).findById(USER_ID);
+        verify(userRepository, times(1)).findCachedById(USER_ID);
     }
 
 
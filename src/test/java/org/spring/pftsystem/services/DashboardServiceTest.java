@@ -1,12 +1,15 @@
 package org.spring.pftsystem.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.constants.Constants;
 import org.spring.pftsystem.entity.response.DashboardAdmin;
 import org.spring.pftsystem.entity.response.DashboardUser;
 import org.spring.pftsystem.entity.response.TransactionsSummary;
@@ -18,16 +21,22 @@ import org.spring.pftsystem.repository.BudgetRepository;
 import org.spring.pftsystem.repository.GoalRepository;
 import org.spring.pftsystem.repository.TransactionsRepo;
 import org.spring.pftsystem.repository.UserRepository;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.SingleFlight;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.spring.pftsystem.utility.UserUtil;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +48,9 @@ public class DashboardServiceTest {
     @Mock
     private TransactionsRepo transactionsRepo;
 
+    @Mock
+    private TransactionRepositoryImpl transactionRepository;
+
     @Mock
     private BudgetRepository budgetRepository;
 
@@ -48,6 +60,15 @@ public class DashboardServiceTest {
     @Mock
     private SystemUsageTracker systemUsageTracker;
 
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
     @InjectMocks
     private DashboardService dashboardService;
 
@@ -55,6 +76,7 @@ public class DashboardServiceTest {
     private List<Transaction> mockIncomeTransactions;
     private List<Transaction> mockExpenseTransactions;
     private List<Transaction> mockSavingsTransactions;
+    private List<Transaction> mockMonthTransactions;
     private List<Goal> mockGoals;
     private Budget mockBudget;
 
@@ -69,25 +91,36 @@ public class DashboardServiceTest {
         // Set up mock transactions
         mockIncomeTransactions = new ArrayList<>();
         Transaction incomeTransaction1 = new Transaction();
+        incomeTransaction1.setType("Income");
         incomeTransaction1.setAmount(1000.0);
         Transaction incomeTransaction2 = new Transaction();
+        incomeTransaction2.setType("Income");
         incomeTransaction2.setAmount(500.0);
         mockIncomeTransactions.add(incomeTransaction1);
         mockIncomeTransactions.add(incomeTransaction2);
 
         mockExpenseTransactions = new ArrayList<>();
         Transaction expenseTransaction1 = new Transaction();
+        expenseTransaction1.setType("Expense");
         expenseTransaction1.setAmount(300.0);
         Transaction expenseTransaction2 = new Transaction();
+        expenseTransaction2.setType("Expense");
         expenseTransaction2.setAmount(200.0);
         mockExpenseTransactions.add(expenseTransaction1);
         mockExpenseTransactions.add(expenseTransaction2);
 
         mockSavingsTransactions = new ArrayList<>();
         Transaction savingsTransaction1 = new Transaction();
+        savingsTransaction1.setType("Savings");
         savingsTransaction1.setAmount(100.0);
         mockSavingsTransactions.add(savingsTransaction1);
 
+        // the month as one range read returns it
+        mockMonthTransactions = new ArrayList<>();
+        mockMonthTransactions.addAll(mockIncomeTransactions);
+        mockMonthTransactions.addAll(mockExpenseTransactions);
+        mockMonthTransactions.addAll(mockSavingsTransactions);
+
         // Set up mock goals - fixed to match your schema
         mockGoals = new ArrayList<>();
         Goal goal1 = new Goal();
@@ -125,16 +158,11 @@ public class DashboardServiceTest {
         // Arrange
         try (MockedStatic<UserUtil> mockedUserUtil = mockStatic(UserUtil.class)) {
             mockedUserUtil.when(() -> UserUtil.getUserFromContext(userRepository)).thenReturn(mockUser);
+            // no data version yet: computed without the versioned cache
+            when(dataVersionService.current("user123")).thenReturn(null);
 
             when(transactionsRepo.countByUserId("user123")).thenReturn(50L);
-            when(transactionsRepo.countTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(10L);
-            when(transactionsRepo.findSavingsTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(mockSavingsTransactions);
-            when(transactionsRepo.findExpenseTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(mockExpenseTransactions);
-            when(transactionsRepo.findIncomeTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(mockIncomeTransactions);
+            when(transactionRepository.findInDateRange(eq("user123"), isNull(), any(), any())).thenReturn(mockMonthTransactions);
             when(budgetRepository.findByUserID("user123")).thenReturn(Optional.of(mockBudget));
             when(goalRepository.countByUserID("user123")).thenReturn(2L);
             when(goalRepository.findByUserID("user123")).thenReturn(mockGoals);
@@ -149,7 +177,7 @@ public class DashboardServiceTest {
             TransactionsSummary summary = result.getTransactionsSummary();
             assertNotNull(summary);
             assertEquals(50L, summary.getTotalTransactionsToDate());
-            assertEquals(10L, summary.getTotalTransactionsThisMonth());
+            assertEquals(5L, summary.getTotalTransactionsThisMonth());
             assertEquals(100.0, summary.getTotalSavingsThisMonth());
             assertEquals(500.0, summary.getTotalExpensesThisMonth()); // 300 + 200
             assertEquals(1500.0, summary.getTotalIncomeThisMonth()); // 1000 + 500
@@ -161,14 +189,9 @@ public class DashboardServiceTest {
             // Verify interactions
             mockedUserUtil.verify(() -> UserUtil.getUserFromContext(userRepository));
             verify(transactionsRepo).countByUserId("user123");
-            verify(transactionsRepo).countTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString());
-            verify(transactionsRepo).findSavingsTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString());
-            verify(transactionsRepo).findExpenseTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString());
-            verify(transactionsRepo).findIncomeTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString());
+            // this month's [first day, first day of next month) in a single query
+            LocalDateTime startOfMonth = YearMonth.now().atDay(1).atStartOfDay();
+            verify(transactionRepository, times(1)).findInDateRange("user123", null, startOfMonth, startOfMonth.plusMonths(1));
             verify(budgetRepository).findByUserID("user123");
             verify(goalRepository).countByUserID("user123");
             verify(goalRepository).findByUserID("user123");
@@ -180,18 +203,13 @@ public class DashboardServiceTest {
         // Arrange
         try (MockedStatic<UserUtil> mockedUserUtil = mockStatic(UserUtil.class)) {
             mockedUserUtil.when(() -> UserUtil.getUserFromContext(userRepository)).thenReturn(mockUser);
+            // no data version yet: computed without the versioned cache
+            when(dataVersionService.current("user123")).thenReturn(null);
 
             when(budgetRepository.findByUserID("user123")).thenReturn(Optional.empty());
             // Other mocks remain the same as previous test...
             when(transactionsRepo.countByUserId("user123")).thenReturn(50L);
-            when(transactionsRepo.countTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(10L);
-            when(transactionsRepo.findSavingsTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(mockSavingsTransactions);
-            when(transactionsRepo.findExpenseTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(mockExpenseTransactions);
-            when(transactionsRepo.findIncomeTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(mockIncomeTransactions);
+            when(transactionRepository.findInDateRange(eq("user123"), isNull(), any(), any())).thenReturn(mockMonthTransactions);
             when(goalRepository.countByUserID("user123")).thenReturn(2L);
             when(goalRepository.findByUserID("user123")).thenReturn(mockGoals);
 
@@ -209,6 +227,37 @@ public class DashboardServiceTest {
         }
     }
 
+    @Test
+    void getDashboardUserData_VersionedCacheHitAndMiss() {
+        // Arrange
+        ConcurrentMapCache cache = new ConcurrentMapCache(Constants.DASHBOARD_OF_USER_CACHE);
+        try (MockedStatic<UserUtil> mockedUserUtil = mockStatic(UserUtil.class)) {
+            mockedUserUtil.when(() -> UserUtil.getUserFromContext(userRepository)).thenReturn(mockUser);
+
+            when(dataVersionService.current("user123")).thenReturn(3L, 3L, 4L);
+            when(cacheManager.getCache(Constants.DASHBOARD_OF_USER_CACHE)).thenReturn(cache);
+            when(transactionsRepo.countByUserId("user123")).thenReturn(50L, 51L);
+            when(transactionRepository.findInDateRange(eq("user123"), isNull(), any(), any())).thenReturn(mockMonthTransactions);
+            when(budgetRepository.findByUserID("user123")).thenReturn(Optional.of(mockBudget));
+            when(goalRepository.countByUserID("user123")).thenReturn(2L);
+            when(goalRepository.findByUserID("user123")).thenReturn(mockGoals);
+
+            // Act
+            DashboardUser first = dashboardService.getDashboardUserData();
+            DashboardUser cached = dashboardService.getDashboardUserData();
+            DashboardUser afterWrite = dashboardService.getDashboardUserData();
+
+            // Assert: same version is served from the cache, a new version is computed again
+            assertSame(first, cached);
+            assertEquals(50L, cached.getTransactionsSummary().getTotalTransactionsToDate());
+            assertNotSame(first, afterWrite);
+            assertEquals(51L, afterWrite.getTransactionsSummary().getTotalTransactionsToDate());
+            verify(transactionsRepo, times(2)).countByUserId("user123");
+            assertNotNull(cache.get("user123:3:" + YearMonth.now()));
+            assertNotNull(cache.get("user123:4:" + YearMonth.now()));
+        }
+    }
+
     @Test
     void getAdminDashboardData_ReturnsCorrectData() {
         // Arrange
@@ -216,7 +265,7 @@ public class DashboardServiceTest {
             mockedUserUtil.when(() -> UserUtil.getUserFromContext(userRepository)).thenReturn(mockUser);
 
             when(transactionsRepo.count()).thenReturn(1000L);
-            when(transactionsRepo.countTransactionsByDateBetween(anyString(), anyString())).thenReturn(200L);
+            when(transactionRepository.countInDateRange(isNull(), any(), any())).thenReturn(200L);
             when(userRepository.count()).thenReturn(50L);
             when(systemUsageTracker.getTotalRequestCount()).thenReturn(5000L);
 
@@ -234,7 +283,7 @@ public class DashboardServiceTest {
             // Verify interactions
             mockedUserUtil.verify(() -> UserUtil.getUserFromContext(userRepository));
             verify(transactionsRepo).count();
-            verify(transactionsRepo).countTransactionsByDateBetween(anyString(), anyString());
+            verify(transactionRepository).countInDateRange(isNull(), any(), any());
             verify(userRepository).count();
             verify(systemUsageTracker).getTotalRequestCount();
         }
@@ -245,16 +294,11 @@ public class DashboardServiceTest {
         // Arrange
         try (MockedStatic<UserUtil> mockedUserUtil = mockStatic(UserUtil.class)) {
             mockedUserUtil.when(() -> UserUtil.getUserFromContext(userRepository)).thenReturn(mockUser);
+            // no data version yet: computed without the versioned cache
+            when(dataVersionService.current("user123")).thenReturn(null);
 
             when(transactionsRepo.countByUserId("user123")).thenReturn(0L);
-            when(transactionsRepo.countTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(0L);
-            when(transactionsRepo.findSavingsTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(new ArrayList<>());
-            when(transactionsRepo.findExpenseTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(new ArrayList<>());
-            when(transactionsRepo.findIncomeTransactionsByUserIdAndTransactionDateBetween(
-                    eq("user123"), anyString(), anyString())).thenReturn(new ArrayList<>());
+            when(transactionRepository.findInDateRange(eq("user123"), isNull(), any(), any())).thenReturn(new ArrayList<>());
             when(budgetRepository.findByUserID("user123")).thenReturn(Optional.of(mockBudget));
             when(goalRepository.countByUserID("user123")).thenReturn(0L);
             when(goalRepository.findByUserID("user123")).thenReturn(new ArrayList<>());
@@ -282,7 +326,7 @@ public class DashboardServiceTest {
             mockedUserUtil.when(() -> UserUtil.getUserFromContext(userRepository)).thenReturn(mockUser);
 
             when(transactionsRepo.count()).thenReturn(0L);
-            when(transactionsRepo.countTransactionsByDateBetween(anyString(), anyString())).thenReturn(0L);
+            when(transactionRepository.countInDateRange(isNull(), any(), any())).thenReturn(0L);
             when(userRepository.count()).thenReturn(0L);
             when(systemUsageTracker.getTotalRequestCount()).thenReturn(0L);
 
@@ -0,0 +1,75 @@
+package org.spring.pftsystem.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DataVersionServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @InjectMocks
+    private DataVersionService dataVersionService;
+
+    @Test
+    void testCurrent_SingleGetWhenVersionExists() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("DATA_VERSION_user123")).thenReturn("42");
+
+        assertEquals(42L, dataVersionService.current("user123"));
+        verify(valueOperations, never()).setIfAbsent(anyString(), anyString());
+    }
+
+    @Test
+    void testCurrent_SeedsMissingVersion() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("DATA_VERSION_user123")).thenReturn(null, "1700000000000");
+
+        assertEquals(1700000000000L, dataVersionService.current("user123"));
+        verify(valueOperations).setIfAbsent(eq("DATA_VERSION_user123"), anyString());
+    }
+
+    @Test
+    void testCurrent_NullWhenRedisUnavailable() {
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertNull(dataVersionService.current("user123"));
+        assertNull(dataVersionService.etag("user123"));
+    }
+
+    @Test
+    void testEtag_IncludesQualifiers() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("DATA_VERSION_user123")).thenReturn("42");
+
+        assertEquals("\"42-2026-10\"", dataVersionService.etag("user123", "2026-10"));
+    }
+
+    @Test
+    void testBump_RunsScriptAndSwallowsFailures() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("DATA_VERSION_user123")), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertDoesNotThrow(() -> dataVersionService.bump("user123"));
+        dataVersionService.bump(null);
+
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+}
@@ -8,8 +8,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.spring.pftsystem.entity.schema.main.Goal;
 import org.spring.pftsystem.entity.schema.main.GoalContribution;
+import org.spring.pftsystem.entity.schema.main.SystemSettings;
 import org.spring.pftsystem.entity.schema.main.Transaction;
 import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.exception.AppIllegalArgument;
 import org.spring.pftsystem.exception.NotFoundException;
 import org.spring.pftsystem.repository.GoalContributionRepository;
 import org.spring.pftsystem.repository.GoalRepository;
@@ -43,6 +45,15 @@ class GoalServiceTest {
     @Mock
     private TransactionsRepo transactionsRepo;
 
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private TransactionCounterService transactionCounterService;
+
+    @Mock
+    private SystemSettingsService systemSettingsService;
+
     @InjectMocks
     private GoalService goalService;
 
@@ -216,26 +227,27 @@ class GoalServiceTest {
     @Test
     void deleteGoal_WhenGoalExists_ShouldDeleteGoal() {
         // Arrange
-        when(goalRepository.existsById(anyString())).thenReturn(true);
+        when(goalRepository.findById("goal123")).thenReturn(Optional.of(testGoal));
         doNothing().when(goalRepository).deleteById(anyString());
 
         // Act
         goalService.deleteGoal("goal123");
 
         // Assert
-        verify(goalRepository, times(1)).existsById("goal123");
+        verify(goalRepository, times(1)).findById("goal123");
         verify(goalRepository, times(1)).deleteById("goal123");
+        verify(dataVersionService, times(1)).bump(testGoal.getUserID());
     }
 
     @Test
     void deleteGoal_WhenGoalDoesNotExist_ShouldThrowNotFoundException() {
         // Arrange
-        when(goalRepository.existsById(anyString())).thenReturn(false);
+        when(goalRepository.findById(anyString())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(NotFoundException.class, () -> goalService.deleteGoal("nonexistent"));
 
-        verify(goalRepository, times(1)).existsById("nonexistent");
+        verify(goalRepository, times(1)).findById("nonexistent");
         verify(goalRepository, never()).deleteById(anyString());
     }
 
@@ -243,6 +255,7 @@ class GoalServiceTest {
     void updateAllGoals_WithMatchingCollectionDay_ShouldProcessAutoCollections() {
         // Arrange
         when(goalRepository.findByEnableAutoCollectTrue()).thenReturn(Arrays.asList(testGoal));
+        when(systemSettingsService.current()).thenReturn(settingsWithLimit(100));
         when(goalContributionRepository.save(any(GoalContribution.class))).thenReturn(testContribution);
         when(transactionsRepo.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -251,10 +264,28 @@ class GoalServiceTest {
 
         // Assert
         verify(goalRepository, times(1)).findByEnableAutoCollectTrue();
+        verify(transactionCounterService, times(1)).reserve("user123", 1, 100);
         verify(goalContributionRepository, times(1)).save(any(GoalContribution.class));
         verify(transactionsRepo, times(1)).save(any(Transaction.class));
     }
 
+    @Test
+    void updateAllGoals_AtTransactionLimit_ShouldSkipCollection() {
+        // Arrange
+        when(goalRepository.findByEnableAutoCollectTrue()).thenReturn(Arrays.asList(testGoal));
+        when(systemSettingsService.current()).thenReturn(settingsWithLimit(100));
+        doThrow(new AppIllegalArgument("Maximum transactions limit for user reached", 400))
+                .when(transactionCounterService).reserve("user123", 1, 100);
+
+        // Act
+        goalService.updateAllGoals();
+
+        // Assert
+        verify(goalContributionRepository, never()).save(any(GoalContribution.class));
+        verify(transactionsRepo, never()).save(any(Transaction.class));
+        verify(dataVersionService, never()).bump(anyString());
+    }
+
     @Test
     void updateAllGoals_WithNonMatchingCollectionDay_ShouldNotProcessCollections() {
         // Arrange
@@ -304,4 +335,8 @@ class GoalServiceTest {
         assertEquals(0.0, result);
         verify(goalContributionRepository, times(1)).findByGoalId("goal123");
     }
+
+    private static SystemSettingsService.Snapshot settingsWithLimit(int transactionLimit) {
+        return SystemSettingsService.Snapshot.of(new SystemSettings("settings", transactionLimit, 10, List.of("Food", "Other"), 60));
+    }
 }
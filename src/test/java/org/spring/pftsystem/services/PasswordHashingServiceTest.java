@@ -0,0 +1,70 @@
+package org.spring.pftsystem.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.spring.pftsystem.exception.TooManyRequestsException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingService passwordHashingService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // one thread, one queue slot, minimum BCrypt cost to keep the test fast
+        passwordHashingService = new PasswordHashingService(meterRegistry, 1, 1, 5000, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void testEncodeAndMatches() {
+        String hash = passwordHashingService.encode("password");
+
+        assertNotEquals("password", hash);
+        assertTrue(passwordHashingService.matches("password", hash));
+        assertFalse(passwordHashingService.matches("wrong", hash));
+        assertEquals(3, meterRegistry.get("auth.hashing.duration").timer().count());
+        assertEquals(3, meterRegistry.get("auth.hashing.wait").timer().count());
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // occupy the only thread, then the only queue slot
+        Thread busy = new Thread(() -> passwordHashingService.run(() -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        busy.start();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Thread queued = new Thread(() -> passwordHashingService.run(() -> true));
+        queued.start();
+        while (meterRegistry.get("auth.hashing.queue.depth").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> passwordHashingService.matches("password", "hash"));
+
+        assertEquals(PasswordHashingService.BUSY_MESSAGE, exception.getMessage());
+        assertEquals(1, meterRegistry.get("auth.hashing.rejected").counter().count());
+
+        release.countDown();
+        busy.join();
+        queued.join();
+    }
+}
@@ -0,0 +1,121 @@
+package org.spring.pftsystem.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import javax.security.auth.login.CredentialNotFoundException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(redisTemplate, 336);
+    }
+
+    @Test
+    void testIssue_StoresOnlyTheHash() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+        RefreshTokenService.Issued issued = refreshTokenService.issue("user123", "user", 0, "jti1");
+        String token = issued.refreshToken();
+
+        assertTrue(token.startsWith(issued.family() + "."));
+        verify(setOperations).add(RefreshTokenService.USER_PREFIX + "user123", issued.family());
+        // the script only touches the family key, the token itself is never stored
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class),
+                eq(List.of(RefreshTokenService.FAMILY_PREFIX + issued.family())),
+                eq("user123"), eq("user"), eq("0"), eq(RefreshTokenService.hash(token)), eq("jti1"), anyString());
+    }
+
+    @Test
+    void testRotate_ReturnsSuccessor() throws CredentialNotFoundException {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("ok", "user123", "user", "2", "jti1"));
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("fam1.secret", "jti2");
+
+        assertEquals("user123", rotation.userId());
+        assertEquals("user", rotation.role());
+        assertEquals(2, rotation.tokenVersion());
+        assertEquals("fam1", rotation.family());
+        assertEquals("jti1", rotation.previousTokenId());
+        assertTrue(rotation.refreshToken().startsWith("fam1."));
+        assertNotEquals("fam1.secret", rotation.refreshToken());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(RefreshTokenService.FAMILY_PREFIX + "fam1")), any(Object[].class));
+    }
+
+    @Test
+    void testRotate_ReuseRevokesFamilyAndReportsSession() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("reused", "user123", "jti1"));
+
+        RefreshTokenService.ReuseDetected exception = assertThrows(RefreshTokenService.ReuseDetected.class,
+                () -> refreshTokenService.rotate("fam1.secret", "jti2"));
+
+        assertEquals("Refresh token reused", exception.getMessage());
+        assertEquals("user123", exception.getUserId());
+        assertEquals("jti1", exception.getTokenId());
+        verify(setOperations).remove(RefreshTokenService.USER_PREFIX + "user123", "fam1");
+    }
+
+    @Test
+    void testRotate_UnknownToken() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("unknown"));
+
+        assertThrows(CredentialNotFoundException.class, () -> refreshTokenService.rotate("fam1.secret", "jti2"));
+    }
+
+    @Test
+    void testRotate_MalformedTokenSkipsRedis() {
+        assertThrows(CredentialNotFoundException.class, () -> refreshTokenService.rotate("no-family", "jti2"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testRevokeFamily_KeepsOtherDevices() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+        refreshTokenService.revokeFamily("user123", "fam1");
+
+        verify(redisTemplate).delete(RefreshTokenService.FAMILY_PREFIX + "fam1");
+        verify(setOperations).remove(RefreshTokenService.USER_PREFIX + "user123", "fam1");
+        verify(redisTemplate, never()).delete(RefreshTokenService.USER_PREFIX + "user123");
+    }
+
+    @Test
+    void testRevokeAll_DeletesEveryFamily() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members(RefreshTokenService.USER_PREFIX + "user123")).thenReturn(Set.of("fam1"));
+
+        refreshTokenService.revokeAll("user123");
+
+        verify(redisTemplate).delete(RefreshTokenService.FAMILY_PREFIX + "fam1");
+        verify(redisTemplate).delete(RefreshTokenService.USER_PREFIX + "user123");
+    }
+}
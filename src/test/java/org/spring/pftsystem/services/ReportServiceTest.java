@@ -1,10 +1,12 @@
 package org.spring.pftsystem.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -15,13 +17,14 @@ import org.spring.pftsystem.entity.schema.main.User;
 import org.spring.pftsystem.entity.schema.sub.*;
 import org.spring.pftsystem.repository.UserRepository;
 import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.SingleFlight;
 import org.spring.pftsystem.utility.UserUtil;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,6 +40,9 @@ public class ReportServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
     @InjectMocks
     private ReportService reportService;
 
@@ -53,8 +59,8 @@ public class ReportServiceTest {
         testUser = new User();
         testUser.setId(TEST_USER_ID);
 
-        // Setup test data with date as a String (simplified ISO format)
-        String currentDate = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
+        // Setup test data dated today
+        LocalDateTime currentDate = LocalDate.now().atStartOfDay();
 
         expenseTransaction = new Transaction();
         expenseTransaction.setId("expense1");
@@ -321,9 +327,7 @@ public class ReportServiceTest {
         Transaction transaction = new Transaction();
         transaction.setType("Expense");
 
-        // Simply use a string date directly
-        String dateString = "2023-05-15";
-        transaction.setTransactionDate(dateString);
+        transaction.setTransactionDate(LocalDateTime.of(2023, 5, 15, 0, 0));
 
         transaction.setAmount(150.0);
         transaction.setCategory("Dining");
@@ -341,7 +345,7 @@ public class ReportServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("Expense", result.getType());
-        assertEquals(dateString, result.getDate()); // Date should remain the same string
+        assertEquals("2023-05-15T00:00", result.getDate()); // ISO local date-time
         assertEquals(150.0, result.getAmount());
         assertEquals("Dining", result.getCategory());
         assertEquals("Restaurant", result.getBeneficiary());
@@ -349,14 +353,13 @@ public class ReportServiceTest {
         assertEquals("Dinner with friends", result.getDescription());
     }
 
-    // This test is no longer needed since we're not parsing dates anymore
-    // But keeping a simplified version for robustness testing
+    // An unreadable legacy string date is read as null (MongoConfig), the mapping must not fail
     @Test
-    void testMapToFilteredTransaction_InvalidDateFormat() throws Exception {
+    void testMapToFilteredTransaction_MissingDate() throws Exception {
         // Arrange
         Transaction transaction = new Transaction();
         transaction.setType("Expense");
-        transaction.setTransactionDate("Invalid date format");
+        transaction.setTransactionDate(null);
         transaction.setAmount(150.0);
         transaction.setCategory("Dining");
         transaction.setBeneficiary("Restaurant");
@@ -372,7 +375,7 @@ public class ReportServiceTest {
 
         // Assert
         assertNotNull(result);
-        assertEquals("Invalid date format", result.getDate()); // Date should remain the same string, even if invalid
+        assertNull(result.getDate());
     }
 
     @Test
@@ -0,0 +1,97 @@
+package org.spring.pftsystem.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private SessionService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        sessionService = new SessionService(redisTemplate);
+    }
+
+    @Test
+    void testIsActive_SessionInIndex() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.score("SESSIONS_user123", "jti1")).thenReturn((double) (System.currentTimeMillis() + 60_000));
+
+        assertTrue(sessionService.isActive("user123", "jti1"));
+    }
+
+    @Test
+    void testIsActive_ExpiredOrMissingSession() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.score("SESSIONS_user123", "jti1")).thenReturn((double) (System.currentTimeMillis() - 1));
+        when(zSetOperations.score("SESSIONS_user123", "jti2")).thenReturn(null);
+
+        assertFalse(sessionService.isActive("user123", "jti1"));
+        assertFalse(sessionService.isActive("user123", "jti2"));
+    }
+
+    @Test
+    void testRegister_SingleRoundTrip() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        sessionService.register("user123", "jti1", new Date(expiresAt), null);
+
+        verify(redisTemplate, times(1)).execute(eq(SessionService.REGISTER_SCRIPT), eq(List.of("SESSIONS_user123")),
+                eq(String.valueOf(expiresAt)), eq("jti1"), eq(""), anyString());
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    void testRegister_ShorterSessionDoesNotShortenIndex() {
+        long longer = System.currentTimeMillis() + 3_600_000;
+        long shorter = System.currentTimeMillis() + 60_000;
+
+        sessionService.register("user123", "jti1", new Date(longer), null);
+        sessionService.register("user123", "jti2", new Date(shorter), null);
+
+        // the new session only passes its own score, the TTL is taken from the highest score in the set
+        verify(redisTemplate).execute(eq(SessionService.REGISTER_SCRIPT), eq(List.of("SESSIONS_user123")),
+                eq(String.valueOf(shorter)), eq("jti2"), eq(""), anyString());
+        String script = SessionService.REGISTER_SCRIPT.getScriptAsString();
+        assertTrue(script.contains("redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES')"));
+        assertTrue(script.contains("redis.call('PEXPIREAT', KEYS[1], newest[2])"));
+        assertFalse(script.contains("PEXPIREAT', KEYS[1], ARGV"));
+    }
+
+    @Test
+    void testRevoke_RemovesOnlyThatSession() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        sessionService.revoke("user123", "jti1");
+
+        verify(zSetOperations).remove("SESSIONS_user123", "jti1");
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void testRevokeAll_DropsIndex() {
+        sessionService.revokeAll("user123");
+
+        verify(redisTemplate).delete("SESSIONS_user123");
+    }
+}
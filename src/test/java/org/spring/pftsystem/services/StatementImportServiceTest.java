@@ -0,0 +1,316 @@
+package org.spring.pftsystem.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.entity.response.ImportJobStatus;
+import org.spring.pftsystem.entity.schema.main.SystemSettings;
+import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.entity.schema.sub.UserSettings;
+import org.spring.pftsystem.exception.NotFoundException;
+import org.spring.pftsystem.repository.UserRepository;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.StatementParser;
+import org.spring.pftsystem.utility.UserUtil;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StatementImportServiceTest {
+
+    private static final String CSV = """
+            Date,Description,Amount,Category,Id
+            2025-03-01,Coffee,-3.50,Food,A1
+            2025-03-02,Salary,1000,,A2
+            2025-03-01,Coffee,-3.50,Food,A1
+            bad,Row,1,,
+            2025-03-03,Book,-20,Unknown,A4
+            """;
+
+    @Mock
+    private TransactionRepositoryImpl transactionRepository;
+
+    @Mock
+    private TransactionCounterService transactionCounterService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SystemSettingsService systemSettingsService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private BudgetService budgetService;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StatementImportService statementImportService;
+    private User user;
+    private final Set<String> storedKeys = new HashSet<>();
+    private final List<Transaction> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // chunk size 2, so the sample statement is written in several bulk inserts
+        statementImportService = new StatementImportService(transactionRepository, transactionCounterService, userRepository,
+                systemSettingsService, categoryService, budgetService, dataVersionService, redisTemplate,
+                objectMapper, new SimpleMeterRegistry(), 1, 1, 2, 24, tempDir.toString());
+
+        user = new User();
+        user.setId("user123");
+        UserSettings settings = new UserSettings();
+        settings.setCurrency("USD");
+        user.setSettings(settings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statementImportService.shutdown();
+    }
+
+    @Test
+    void testRun_DedupesAndInsertsInChunks() throws Exception {
+        // Arrange
+        stubStorage(1000);
+        when(categoryService.canonicalName("Food")).thenReturn("Food");
+        when(categoryService.canonicalName("Unknown")).thenReturn(null);
+        Path file = write(CSV);
+
+        // Act
+        ImportJobStatus job = job();
+        statementImportService.run(job, user, file, StatementParser.Format.CSV, "Other");
+
+        // Assert
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(5, job.getRowsRead());
+        assertEquals(3, job.getInserted());
+        assertEquals(1, job.getDuplicates());
+        assertEquals(1, job.getInvalid());
+        assertEquals(job.getBytesTotal(), job.getBytesRead());
+
+        Transaction coffee = inserted.get(0);
+        assertEquals("Expense", coffee.getType());
+        assertEquals(3.5, coffee.getAmount());
+        assertEquals("USD", coffee.getCurrency());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), coffee.getTransactionDate());
+        assertEquals("Income", inserted.get(1).getType());
+        assertEquals("Other", inserted.get(1).getCategory());
+        assertEquals("Other", inserted.get(2).getCategory());
+
+        verify(transactionRepository, times(2)).insertAll(anyList());
+        verify(transactionCounterService, times(2)).reserveUpTo(eq("user123"), anyInt(), eq(1000));
+        verify(transactionCounterService, never()).adjust(anyString(), anyLong());
+        verify(dataVersionService, times(1)).bump("user123");
+        verify(budgetService, times(1)).updateBudgetForUser("user123");
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testRun_KeepsIdenticalRowsWithoutIdAndRejectsUnknownCurrency() throws Exception {
+        // Arrange: two genuine coffees on one day, no bank id, and a made-up currency
+        stubStorage(1000);
+        String statement = """
+                Date,Description,Amount,Currency
+                2025-03-01,Coffee,-3.50,eur
+                2025-03-01,Coffee,-3.50,EUR
+                2025-03-02,Lunch,-12,XYZ
+                """;
+
+        // Act
+        ImportJobStatus first = job();
+        statementImportService.run(first, user, write(statement), StatementParser.Format.CSV, "Other");
+        ImportJobStatus again = job();
+        statementImportService.run(again, user, write(statement), StatementParser.Format.CSV, "Other");
+
+        // Assert: both coffees survive the first run, the re-import dedupes them
+        assertEquals(2, first.getInserted());
+        assertEquals(0, first.getDuplicates());
+        assertEquals(1, first.getInvalid());
+        assertEquals("EUR", inserted.get(0).getCurrency());
+        assertNotEquals(inserted.get(0).getImportKey(), inserted.get(1).getImportKey());
+        assertEquals(0, again.getInserted());
+        assertEquals(2, again.getDuplicates());
+        assertEquals(1, again.getInvalid());
+    }
+
+    @Test
+    void testRun_ManyDistinctRowsKeepOccurrencesBounded() throws Exception {
+        // Arrange: 20,000 distinct id-less rows over 200 days, chunk size 2
+        stubStorage(1_000_000);
+        StringBuilder statement = new StringBuilder("Date,Description,Amount\n");
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 20_000; i++) {
+            statement.append(day.plusDays(i / 100)).append(",Shop ").append(i).append(",-1\n");
+        }
+
+        // Act
+        ImportJobStatus job = job();
+        statementImportService.run(job, user, write(statement.toString()), StatementParser.Format.CSV, "Other");
+
+        // Assert: every row kept, with distinct keys
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(20_000, job.getInserted());
+        assertEquals(20_000, storedKeys.size());
+    }
+
+    @Test
+    void testRowOccurrences_HoldsOnlyTheCurrentDate() {
+        // Arrange
+        StatementImportService.RowOccurrences occurrences = new StatementImportService.RowOccurrences();
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        int largest = 0;
+
+        // Act: 100,000 distinct fingerprints, 100 per date
+        for (int i = 0; i < 100_000; i++) {
+            LocalDate date = day.plusDays(i / 100);
+            assertEquals(1, occurrences.next(date, date + "|1|shop " + i));
+            largest = Math.max(largest, occurrences.size());
+        }
+
+        // Assert: never more than one day of rows, and repeats within a day are still counted
+        assertEquals(100, largest);
+        LocalDate last = day.plusDays(999);
+        assertEquals(2, occurrences.next(last, last + "|1|shop 99999"));
+    }
+
+    @Test
+    void testRun_ReleasesReservationWhenInsertFails() throws Exception {
+        // Arrange: the write fails outright, not as a partial bulk write
+        stubStorage(1000);
+        when(transactionRepository.insertAll(anyList())).thenThrow(new DataAccessResourceFailureException("timed out"));
+        Path file = write("""
+                Date,Description,Amount,Id
+                2025-03-01,Coffee,-3.50,A1
+                2025-03-02,Salary,1000,A2
+                """);
+
+        // Act
+        ImportJobStatus job = job();
+        statementImportService.run(job, user, file, StatementParser.Format.CSV, "Other");
+
+        // Assert
+        assertEquals("FAILED", job.getStatus());
+        assertEquals(0, job.getInserted());
+        verify(transactionCounterService, times(1)).adjust("user123", -2);
+    }
+
+    @Test
+    void testRun_StopsAtTransactionLimit() throws Exception {
+        // Arrange: one transaction left before the limit
+        stubStorage(101);
+        when(categoryService.canonicalName("Food")).thenReturn("Food");
+        Path file = write(CSV);
+
+        // Act
+        ImportJobStatus job = job();
+        statementImportService.run(job, user, file, StatementParser.Format.CSV, "Other");
+
+        // Assert
+        assertEquals("FAILED", job.getStatus());
+        assertEquals("Maximum transactions limit for user reached", job.getError());
+        assertEquals(1, job.getInserted());
+        verify(dataVersionService, times(1)).bump("user123");
+    }
+
+    @Test
+    void testGetStatus_HidesJobsOfOtherUsers() throws Exception {
+        // Arrange
+        ImportJobStatus job = job();
+        job.setUserId("someoneElse");
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(StatementImportService.JOB_PREFIX + "job1")).thenReturn(objectMapper.writeValueAsString(job));
+
+        try (MockedStatic<UserUtil> userUtil = mockStatic(UserUtil.class)) {
+            userUtil.when(UserUtil::getCurrentUserId).thenReturn("user123");
+
+            // Act & Assert
+            assertThrows(NotFoundException.class, () -> statementImportService.getStatus("job1"));
+        }
+    }
+
+    private void stubStorage(int transactionLimit) {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doNothing().when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        // the user already holds 100 transactions
+        AtomicLong counter = new AtomicLong(100);
+        when(transactionCounterService.reserveUpTo(eq("user123"), anyInt(), eq(transactionLimit))).thenAnswer(invocation -> {
+            int requested = invocation.getArgument(1);
+            long granted = Math.max(0, Math.min(requested, transactionLimit - counter.get()));
+            counter.addAndGet(granted);
+            return (int) granted;
+        });
+        SystemSettings settings = new SystemSettings("settings", transactionLimit, 10, List.of("Food", "Other"), 60);
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(settings));
+
+        when(transactionRepository.findImportKeys(eq("user123"), any())).thenAnswer(invocation -> {
+            Collection<String> keys = invocation.getArgument(1);
+            return keys.stream().filter(storedKeys::contains).collect(Collectors.toSet());
+        });
+        when(transactionRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            transactions.forEach(transaction -> storedKeys.add(transaction.getImportKey()));
+            inserted.addAll(transactions);
+            return transactions.size();
+        });
+    }
+
+    private ImportJobStatus job() {
+        ImportJobStatus job = new ImportJobStatus();
+        job.setJobId("job1");
+        job.setUserId("user123");
+        job.setStatus("QUEUED");
+        return job;
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = tempDir.resolve("statement.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -5,12 +5,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.constants.Constants;
 import org.spring.pftsystem.entity.schema.main.SystemSettings;
 import org.spring.pftsystem.repository.SystemSettingsRepo;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -22,6 +26,12 @@ public class SystemSettingsServiceTest {
     @Mock
     private SystemSettingsRepo systemSettingsRepo;
 
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
     @InjectMocks
     private SystemSettingsService systemSettingsService;
 
@@ -216,4 +226,84 @@ public class SystemSettingsServiceTest {
         verify(systemSettingsRepo, times(1)).findFirstByOrderByIdAsc();
         verify(systemSettingsRepo, times(1)).save(any(SystemSettings.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCurrent_LoadsOnceThenServesFromMemory() {
+        SystemSettings existingSettings = new SystemSettings("existing123", 2000, 150, Arrays.asList("Food"), 60);
+        when(systemSettingsRepo.findFirstByOrderByIdAsc()).thenReturn(existingSettings);
+
+        SystemSettingsService.Snapshot first = systemSettingsService.current();
+        SystemSettingsService.Snapshot second = systemSettingsService.current();
+
+        assertSame(first, second);
+        assertEquals(2000, first.totalTransactionsLimit());
+        assertEquals(List.of("Food"), first.categories());
+        verify(systemSettingsRepo, times(1)).findFirstByOrderByIdAsc();
+    }
+
+    @Test
+    void testUpdateSystemSettings_RefreshesSnapshotAndBroadcasts() {
+        SystemSettings updated = new SystemSettings("settings123", 3000, 200, Arrays.asList("Bills"), 60);
+        when(systemSettingsRepo.save(any(SystemSettings.class))).thenReturn(updated);
+
+        systemSettingsService.updateSystemSettings(updated);
+
+        assertEquals(3000, systemSettingsService.current().totalTransactionsLimit());
+        verify(systemSettingsRepo, never()).findFirstByOrderByIdAsc();
+        verify(redisTemplate, times(1)).convertAndSend(Constants.SETTINGS_CHANGED_CHANNEL, "settings123");
+    }
+
+    @Test
+    void testSnapshot_IsNotAffectedByLaterEntityChanges() {
+        List<String> categories = new ArrayList<>(List.of("Food"));
+        SystemSettings settings = new SystemSettings("settings123", 3000, 200, categories, 60);
+
+        SystemSettingsService.Snapshot snapshot = SystemSettingsService.Snapshot.of(settings);
+        categories.add("Rent");
+
+        assertEquals(List.of("Food"), snapshot.categories());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.categories().add("Rent"));
+    }
+
+    @Test
+    void testSnapshot_IndexesNormalizedCategories() {
+        SystemSettings settings = new SystemSettings("settings123", 3000, 200, Arrays.asList(" Food", "RENT"), 60);
+
+        SystemSettingsService.Snapshot snapshot = SystemSettingsService.Snapshot.of(settings);
+
+        assertEquals(Set.of("food", "rent"), snapshot.categoryIndex().keySet());
+        assertTrue(snapshot.isValidCategory("food "));
+        assertTrue(snapshot.isValidCategory("Rent"));
+        assertFalse(snapshot.isValidCategory("Travel"));
+        assertFalse(snapshot.isValidCategory(null));
+    }
+
+    @Test
+    void testSnapshot_CanonicalCategoryIsTheConfiguredName() {
+        SystemSettings settings = new SystemSettings("settings123", 3000, 200, Arrays.asList("Food", "RENT", "food"), 60);
+
+        SystemSettingsService.Snapshot snapshot = SystemSettingsService.Snapshot.of(settings);
+
+        assertEquals("Food", snapshot.canonicalCategory("food "));
+        assertEquals("Food", snapshot.canonicalCategory("FOOD")); // first configured spelling wins
+        assertEquals("RENT", snapshot.canonicalCategory("Rent"));
+        assertNull(snapshot.canonicalCategory("Travel"));
+        assertNull(snapshot.canonicalCategory(null));
+    }
+
+    @Test
+    void testSnapshot_ReusesIndexWhenCategoriesUnchanged() {
+        SystemSettings settings = new SystemSettings("settings123", 3000, 200, Arrays.asList("Food"), 60);
+        SystemSettingsService.Snapshot previous = SystemSettingsService.Snapshot.of(settings);
+
+        settings.setTotalTransactionsLimit(4000);
+        SystemSettingsService.Snapshot unchanged = SystemSettingsService.Snapshot.of(settings, previous);
+        settings.setCategories(Arrays.asList("Food", "Rent"));
+        SystemSettingsService.Snapshot changed = SystemSettingsService.Snapshot.of(settings, previous);
+
+        assertSame(previous.categoryIndex(), unchanged.categoryIndex());
+        assertEquals(4000, unchanged.totalTransactionsLimit());
+        assertNotSame(previous.categoryIndex(), changed.categoryIndex());
+        assertTrue(changed.isValidCategory("rent"));
+    }
+}
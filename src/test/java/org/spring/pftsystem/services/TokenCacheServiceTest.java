@@ -0,0 +1,107 @@
+package org.spring.pftsystem.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.constants.Constants;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenCacheServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private TokenCacheService tokenCacheService;
+    private Date expiresAt;
+
+    @BeforeEach
+    void setUp() {
+        tokenCacheService = new TokenCacheService(redisTemplate, sessionService, listenerContainer, 100, 30);
+        expiresAt = new Date(System.currentTimeMillis() + 60_000);
+    }
+
+    @Test
+    void testIsActive_CachesAfterFirstRedisLookup() {
+        when(sessionService.isActive("user123", "jti1")).thenReturn(true);
+
+        assertTrue(tokenCacheService.isActive("user123", "jti1", expiresAt));
+        assertTrue(tokenCacheService.isActive("user123", "jti1", expiresAt));
+
+        verify(sessionService, times(1)).isActive("user123", "jti1");
+    }
+
+    @Test
+    void testIsActive_RejectsWhenNotInRedis() {
+        when(sessionService.isActive("user123", "jti1")).thenReturn(false);
+
+        assertFalse(tokenCacheService.isActive("user123", "jti1", expiresAt));
+        assertFalse(tokenCacheService.isActive("user123", "jti1", expiresAt));
+
+        verify(sessionService, times(2)).isActive("user123", "jti1");
+    }
+
+    @Test
+    void testIsActive_RejectsTokenWithoutId() {
+        assertFalse(tokenCacheService.isActive("user123", null, expiresAt));
+
+        verifyNoInteractions(sessionService);
+    }
+
+    @Test
+    void testInvalidate_EvictsLocallyAndPublishes() {
+        when(sessionService.isActive("user123", "jti1")).thenReturn(true);
+        tokenCacheService.isActive("user123", "jti1", expiresAt);
+
+        tokenCacheService.invalidate("user123");
+        tokenCacheService.isActive("user123", "jti1", expiresAt);
+
+        verify(redisTemplate, times(1)).convertAndSend(Constants.TOKEN_INVALIDATION_CHANNEL, "user123");
+        verify(sessionService, times(2)).isActive("user123", "jti1");
+    }
+
+    @Test
+    void testInvalidateSession_KeepsOtherDevices() {
+        when(sessionService.isActive("user123", "jti1")).thenReturn(true);
+        when(sessionService.isActive("user123", "jti2")).thenReturn(true);
+        tokenCacheService.isActive("user123", "jti1", expiresAt);
+        tokenCacheService.isActive("user123", "jti2", expiresAt);
+
+        tokenCacheService.invalidateSession("user123", "jti1");
+        tokenCacheService.isActive("user123", "jti1", expiresAt);
+        tokenCacheService.isActive("user123", "jti2", expiresAt);
+
+        verify(redisTemplate, times(1)).convertAndSend(Constants.TOKEN_INVALIDATION_CHANNEL, "user123:jti1");
+        verify(sessionService, times(2)).isActive("user123", "jti1");
+        verify(sessionService, times(1)).isActive("user123", "jti2");
+    }
+
+    @Test
+    void testOnMessage_EvictsTokensOfPublishedUser() {
+        when(sessionService.isActive("user123", "jti1")).thenReturn(true);
+        tokenCacheService.isActive("user123", "jti1", expiresAt);
+
+        tokenCacheService.onMessage(new DefaultMessage(
+                Constants.TOKEN_INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "user123".getBytes(StandardCharsets.UTF_8)), null);
+        tokenCacheService.isActive("user123", "jti1", expiresAt);
+
+        verify(sessionService, times(2)).isActive("user123", "jti1");
+    }
+}
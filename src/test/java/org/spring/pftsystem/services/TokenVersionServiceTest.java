@@ -0,0 +1,103 @@
+package org.spring.pftsystem.services;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.entity.schema.main.User;
+import org.spring.pftsystem.repository.UserRepository;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private TokenCacheService tokenCacheService;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private TokenVersionService tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionService = new TokenVersionService(userRepository, mongoTemplate, tokenCacheService, listenerContainer, 100, 300, 60);
+    }
+
+    @Test
+    void testCurrentVersion_LoadsUserOnce() {
+        User user = new User();
+        user.setId("user123");
+        user.setTokenVersion(2);
+        when(userRepository.findById("user123")).thenReturn(Optional.of(user));
+
+        assertEquals(2, tokenVersionService.currentVersion("user123"));
+        assertEquals(2, tokenVersionService.currentVersion("user123"));
+
+        verify(userRepository, times(1)).findById("user123");
+    }
+
+    @Test
+    void testCurrentVersion_UnknownUser() {
+        when(userRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertNull(tokenVersionService.currentVersion("missing"));
+    }
+
+    @Test
+    void testBumpVersion_IncrementsAndInvalidates() {
+        tokenVersionService.bumpVersion("user123");
+
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(User.class));
+        verify(tokenCacheService, times(1)).invalidate("user123");
+    }
+
+    @Test
+    void testChangeRole_SetsRoleAndBumpsVersionInOneWrite() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertTrue(tokenVersionService.changeRole("user123", "user"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(User.class));
+        assertEquals("user", update.getValue().getUpdateObject().get("$set", Document.class).get("role"));
+        assertEquals(1, update.getValue().getUpdateObject().get("$inc", Document.class).get("tokenVersion"));
+        verify(tokenCacheService, times(1)).invalidate("user123");
+    }
+
+    @Test
+    void testBumpVersion_ReloadsLocallyWithoutPubSub() {
+        User user = new User();
+        user.setId("user123");
+        user.setTokenVersion(2);
+        when(userRepository.findById("user123")).thenReturn(Optional.of(user));
+        assertEquals(2, tokenVersionService.currentVersion("user123"));
+
+        tokenVersionService.bumpVersion("user123");
+        user.setTokenVersion(3);
+
+        assertEquals(3, tokenVersionService.currentVersion("user123"));
+        verify(userRepository, times(2)).findById("user123");
+    }
+}
@@ -0,0 +1,167 @@
+package org.spring.pftsystem.services;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.entity.schema.main.TransactionCounter;
+import org.spring.pftsystem.exception.AppIllegalArgument;
+import org.spring.pftsystem.repository.TransactionsRepo;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionCounterServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private TransactionsRepo transactionsRepo;
+
+    private TransactionCounterService transactionCounterService;
+
+    @BeforeEach
+    void setUp() {
+        transactionCounterService = new TransactionCounterService(mongoTemplate, transactionsRepo, 300);
+    }
+
+    @Test
+    void testReserve_GuardedIncrementWithoutCounting() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(TransactionCounter.class)))
+                .thenReturn(new TransactionCounter("user123", 51));
+
+        // Act
+        transactionCounterService.reserve("user123", 1, 100);
+
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(TransactionCounter.class));
+        assertEquals(99, query.getValue().getQueryObject().get("count", Document.class).get("$lte"));
+        verify(transactionsRepo, never()).countByUserId(any());
+    }
+
+    @Test
+    void testReserve_SeedsMissingCounterOnce() {
+        // Arrange: first attempt finds no counter, the retry after seeding succeeds
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(TransactionCounter.class)))
+                .thenReturn(null, new TransactionCounter("user123", 8));
+        when(mongoTemplate.exists(any(Query.class), eq(TransactionCounter.class))).thenReturn(false);
+        when(transactionsRepo.countByUserId("user123")).thenReturn(7L);
+
+        // Act
+        transactionCounterService.reserve("user123", 1, 100);
+
+        // Assert
+        verify(mongoTemplate).insert(new TransactionCounter("user123", 7));
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(TransactionCounter.class));
+    }
+
+    @Test
+    void testReserve_ThrowsAtLimit() {
+        // Arrange: the counter exists but the guard did not match
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(TransactionCounter.class)))
+                .thenReturn(null);
+        when(mongoTemplate.exists(any(Query.class), eq(TransactionCounter.class))).thenReturn(true);
+
+        // Act & Assert
+        AppIllegalArgument exception = assertThrows(AppIllegalArgument.class,
+                () -> transactionCounterService.reserve("user123", 1, 100));
+        assertEquals(400, exception.getStatusCode());
+        verify(transactionsRepo, never()).countByUserId(any());
+        verify(mongoTemplate, never()).insert(any(TransactionCounter.class));
+    }
+
+    @Test
+    void testReserveUpTo_GrantsWhatIsLeft() {
+        // Arrange: 97 of 100 used, 10 requested
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(TransactionCounter.class)))
+                .thenReturn(null);
+        when(mongoTemplate.findById("user123", TransactionCounter.class)).thenReturn(new TransactionCounter("user123", 97));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TransactionCounter.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        int granted = transactionCounterService.reserveUpTo("user123", 10, 100);
+
+        // Assert
+        assertEquals(3, granted);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(TransactionCounter.class));
+        assertEquals(3L, update.getValue().getUpdateObject().get("$inc", Document.class).get("count"));
+    }
+
+    @Test
+    void testReconcile_CorrectsDriftedCounters() {
+        // Arrange
+        Instant settled = Instant.now().minusSeconds(3600);
+        when(mongoTemplate.stream(any(Query.class), eq(TransactionCounter.class))).thenReturn(Stream.of(
+                new TransactionCounter("inSync", 5, settled),
+                new TransactionCounter("drifted", 9, settled)));
+        when(transactionsRepo.countByUserId("inSync")).thenReturn(5L);
+        when(transactionsRepo.countByUserId("drifted")).thenReturn(7L);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TransactionCounter.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        int corrected = transactionCounterService.reconcile();
+
+        // Assert
+        assertEquals(1, corrected);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(query.capture(), update.capture(), eq(TransactionCounter.class));
+        assertEquals(7L, update.getValue().getUpdateObject().get("$set", Document.class).get("count"));
+        // compare-and-set on both the count and the last touch that were read
+        assertEquals(9L, query.getValue().getQueryObject().get("count"));
+        assertEquals(settled, query.getValue().getQueryObject().get("updatedAt"));
+    }
+
+    @Test
+    void testReconcile_SkipsRecentlyTouchedCounters() {
+        // Arrange
+        when(mongoTemplate.stream(any(Query.class), eq(TransactionCounter.class))).thenReturn(Stream.empty());
+
+        // Act
+        transactionCounterService.reconcile();
+
+        // Assert: only counters untouched for the grace period (or never touched) are read
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(TransactionCounter.class));
+        @SuppressWarnings("unchecked")
+        List<Document> either = (List<Document>) query.getValue().getQueryObject().get("$or");
+        Instant cutoff = (Instant) either.get(0).get("updatedAt", Document.class).get("$lt");
+        assertTrue(cutoff.isBefore(Instant.now().minusSeconds(299)));
+        assertEquals(false, either.get(1).get("updatedAt", Document.class).get("$exists"));
+        verify(transactionsRepo, never()).countByUserId(any());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(TransactionCounter.class));
+    }
+
+    @Test
+    void testAdjust_MarksCounterTouched() {
+        // Act
+        transactionCounterService.adjust("user123", -1);
+
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(TransactionCounter.class));
+        assertEquals(-1L, update.getValue().getUpdateObject().get("$inc", Document.class).get("count"));
+        assertNotNull(update.getValue().getUpdateObject().get("$set", Document.class).get("updatedAt"));
+    }
+}
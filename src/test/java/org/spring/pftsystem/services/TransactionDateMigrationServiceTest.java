@@ -0,0 +1,164 @@
+package org.spring.pftsystem.services;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionDateMigrationServiceTest {
+
+    private static final String COLLECTION = "Transactions";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private TransactionRepositoryImpl transactionRepository;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private BulkWriteResult bulkWriteResult;
+
+    private TransactionDateMigrationService migrationService;
+
+    @BeforeEach
+    void setUp() {
+        migrationService = new TransactionDateMigrationService(mongoTemplate, transactionRepository, true, 2, 0);
+        lenient().when(mongoTemplate.getCollectionName(Transaction.class)).thenReturn(COLLECTION);
+    }
+
+    @Test
+    void testMigrate_RewritesStringDatesAndClosesWindow() {
+        // Arrange: one batch with a legacy row, then nothing left
+        ObjectId id = new ObjectId();
+        Document legacy = new Document("_id", id)
+                .append("transactionDate", "2025-03-01T10:15:30.123")
+                .append("lastUpdatedAt", new Date());
+        when(mongoTemplate.exists(any(Query.class), eq(COLLECTION))).thenReturn(true, false);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(List.of(legacy), List.of());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getModifiedCount()).thenReturn(1);
+
+        // Act
+        migrationService.migrate();
+
+        // Assert: guarded by the string read, only the string field is rewritten
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(guard.capture(), update.capture());
+        assertEquals(id, guard.getValue().getQueryObject().get("_id"));
+        assertEquals("2025-03-01T10:15:30.123", guard.getValue().getQueryObject().get("transactionDate"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        Date expected = Date.from(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_000_000).atZone(ZoneId.systemDefault()).toInstant());
+        assertEquals(expected, set.get("transactionDate"));
+        assertFalse(set.containsKey("lastUpdatedAt"));
+        verify(transactionRepository).closeLegacyDateWindow();
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(TransactionDateMigrationService.MARKER_COLLECTION));
+    }
+
+    @Test
+    void testMigrate_UnreadableDateFallsBackToCreationTime() {
+        // Arrange
+        ObjectId id = new ObjectId();
+        Document legacy = new Document("_id", id).append("transactionDate", "not a date");
+        when(mongoTemplate.exists(any(Query.class), eq(COLLECTION))).thenReturn(true, false);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(List.of(legacy), List.of());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getModifiedCount()).thenReturn(1);
+
+        // Act
+        migrationService.migrate();
+
+        // Assert: the original text is kept beside the replacement
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(any(Query.class), update.capture());
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(id.getDate(), set.get("transactionDate"));
+        assertEquals("not a date", set.get("transactionDateLegacy"));
+    }
+
+    @Test
+    void testMigrate_NoProgressKeepsDualRead() {
+        // Arrange: string dates remain but every guarded update misses
+        Document legacy = new Document("_id", new ObjectId()).append("transactionDate", "2025-03-01T10:00");
+        when(mongoTemplate.exists(any(Query.class), eq(COLLECTION))).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(COLLECTION))).thenReturn(List.of(legacy), List.of());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult);
+        when(bulkWriteResult.getModifiedCount()).thenReturn(0);
+
+        // Act
+        migrationService.migrate();
+
+        // Assert
+        verify(transactionRepository, never()).closeLegacyDateWindow();
+        verify(mongoTemplate, never()).upsert(any(Query.class), any(Update.class), anyString());
+    }
+
+    @Test
+    void testMigrate_AlreadyMigratedClosesWindowWithoutWrites() {
+        // Arrange
+        when(mongoTemplate.exists(any(Query.class), eq(COLLECTION))).thenReturn(false);
+
+        // Act
+        migrationService.migrate();
+
+        // Assert
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), anyString());
+        verify(transactionRepository).closeLegacyDateWindow();
+        ArgumentCaptor<Query> marker = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).upsert(marker.capture(), any(Update.class), eq(TransactionDateMigrationService.MARKER_COLLECTION));
+        assertEquals(TransactionDateMigrationService.MARKER_ID, marker.getValue().getQueryObject().get("_id"));
+    }
+
+    @Test
+    void testRestoreState_StoredMarkerClosesWindowWithoutScan() {
+        // Arrange: another node finished the migration before this one started
+        when(mongoTemplate.exists(any(Query.class), eq(TransactionDateMigrationService.MARKER_COLLECTION))).thenReturn(true);
+
+        // Act
+        migrationService.restoreState();
+
+        // Assert
+        verify(transactionRepository).closeLegacyDateWindow();
+        verify(mongoTemplate, never()).exists(any(Query.class), eq(COLLECTION));
+    }
+
+    @Test
+    void testRestoreState_NoMarkerKeepsDualRead() {
+        // Arrange
+        when(mongoTemplate.exists(any(Query.class), eq(TransactionDateMigrationService.MARKER_COLLECTION))).thenReturn(false);
+
+        // Act
+        migrationService.restoreState();
+
+        // Assert
+        verify(transactionRepository, never()).closeLegacyDateWindow();
+    }
+}
@@ -0,0 +1,110 @@
+package org.spring.pftsystem.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.entity.request.TransactionFilter;
+import org.spring.pftsystem.entity.schema.main.Transaction;
+import org.spring.pftsystem.exception.AppIllegalArgument;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepositoryImpl transactionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private TransactionExportService transactionExportService;
+
+    private final AtomicBoolean cursorClosed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        transactionExportService = new TransactionExportService(transactionRepository, objectMapper);
+    }
+
+    @Test
+    void testExport_NdjsonWritesOneDocumentPerLineAndClosesCursor() throws Exception {
+        // Arrange
+        TransactionFilter filter = new TransactionFilter("Expense", null, null, null);
+        when(transactionRepository.streamByUserId("user123", filter, TransactionExportService.CURSOR_BATCH_SIZE))
+                .thenReturn(cursor(row("t2", "Rent"), row("t1", "Food")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = transactionExportService.export("user123", filter, TransactionExportService.Format.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("t2", first.get("id").asText());
+        assertEquals("Rent", first.get("beneficiary").asText());
+        assertEquals("t1", objectMapper.readTree(lines[1]).get("id").asText());
+        assertTrue(cursorClosed.get());
+    }
+
+    @Test
+    void testExport_CsvEscapesFields() throws Exception {
+        // Arrange
+        Transaction tricky = row("t1", "Shop, \"Main\" St");
+        tricky.setSenderDescription("=HYPERLINK(1)");
+        tricky.setTags(List.of("a", "b"));
+        when(transactionRepository.streamByUserId(eq("user123"), isNull(), anyInt())).thenReturn(cursor(tricky));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = transactionExportService.export("user123", null, TransactionExportService.Format.CSV, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(1, rows);
+        assertTrue(lines[0].startsWith("id,transactionDate,type,category,amount"));
+        assertEquals("t1,2025-03-01T10:00,Expense,Groceries,12.5,USD,\"Shop, \"\"Main\"\" St\",'=HYPERLINK(1),a;b,false,",
+                lines[1]);
+        assertTrue(cursorClosed.get());
+    }
+
+    @Test
+    void testFormat_FromParam() {
+        assertEquals(TransactionExportService.Format.NDJSON, TransactionExportService.Format.fromParam(null));
+        assertEquals(TransactionExportService.Format.CSV, TransactionExportService.Format.fromParam("csv"));
+        assertThrows(AppIllegalArgument.class, () -> TransactionExportService.Format.fromParam("xml"));
+    }
+
+    private Stream<Transaction> cursor(Transaction... rows) {
+        return Stream.of(rows).onClose(() -> cursorClosed.set(true));
+    }
+
+    private Transaction row(String id, String beneficiary) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setUserId("user123");
+        transaction.setType("Expense");
+        transaction.setCategory("Groceries");
+        transaction.setBeneficiary(beneficiary);
+        transaction.setAmount(12.5);
+        transaction.setCurrency("USD");
+        transaction.setIsRecurring(false);
+        transaction.setTransactionDate(LocalDateTime.of(2025, 3, 1, 10, 0));
+        transaction.setLastUpdatedAt(null);
+        return transaction;
+    }
+}
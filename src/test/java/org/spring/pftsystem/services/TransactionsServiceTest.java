@@ -1,22 +1,30 @@
 package org.spring.pftsystem.services;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.entity.request.TransactionFilter;
+import org.spring.pftsystem.entity.response.TransactionPage;
 import org.spring.pftsystem.entity.schema.main.SystemSettings;
 import org.spring.pftsystem.entity.schema.main.Transaction;
 import org.spring.pftsystem.entity.schema.main.User;
 import org.spring.pftsystem.entity.schema.sub.RecurrenceDetails;
 import org.spring.pftsystem.entity.schema.sub.UserSettings;
 import org.spring.pftsystem.exception.AppIllegalArgument;
+import org.spring.pftsystem.exception.BulkValidationException;
 import org.spring.pftsystem.exception.NotFoundException;
-import org.spring.pftsystem.repository.SystemSettingsRepo;
 import org.spring.pftsystem.repository.TransactionsRepo;
 import org.spring.pftsystem.repository.UserRepository;
+import org.spring.pftsystem.repository.customImp.TransactionRepositoryImpl;
+import org.spring.pftsystem.utility.PageCursor;
 import org.spring.pftsystem.utility.UserUtil;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
@@ -25,10 +33,15 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,11 +50,26 @@ public class TransactionsServiceTest {
     @Mock
     private TransactionsRepo transactionsRepo;
 
+    @Mock
+    private TransactionRepositoryImpl transactionRepository;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
-    private SystemSettingsRepo systemSettingsRepo;
+    private SystemSettingsService systemSettingsService;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private TransactionCounterService transactionCounterService;
+
+    @Mock
+    private BudgetService budgetService;
 
     @InjectMocks
     private TransactionsService transactionsService;
@@ -79,8 +107,8 @@ public class TransactionsServiceTest {
         transaction.setAmount(100.0);
         transaction.setCurrency("USD");
         transaction.setIsRecurring(false);
-        transaction.setTransactionDate(LocalDateTime.now().toString());
-        transaction.setLastUpdatedAt(LocalDateTime.now().toString());
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setLastUpdatedAt(LocalDateTime.now());
 
         // Setup recurrence details
         LocalDate today = LocalDate.now();
@@ -125,11 +153,8 @@ public class TransactionsServiceTest {
         newTransaction.setAmount(50.0);
         newTransaction.setCurrency(""); // Empty currency to test default currency assignment
 
-        // Mock transaction count
-        when(transactionsRepo.countByUserId("user123")).thenReturn(50L); // Below the limit
-
         // Mock system settings
-        when(systemSettingsRepo.findFirstByOrderByIdAsc()).thenReturn(systemSettings);
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
 
         when(transactionsRepo.save(any(Transaction.class))).thenAnswer(invocation -> {
             Transaction saved = invocation.getArgument(0);
@@ -137,11 +162,6 @@ public class TransactionsServiceTest {
             return saved;
         });
 
-        // Mock the budgetService.updateBudgetForUser method
-        BudgetService budgetService = mock(BudgetService.class);
-        ReflectionTestUtils.setField(transactionsService, "budgetService", budgetService);
-        doNothing().when(budgetService).updateBudgetForUser(anyString());
-
         // Act
         Transaction result = transactionsService.createTransaction(newTransaction);
 
@@ -149,11 +169,31 @@ public class TransactionsServiceTest {
         assertNotNull(result);
         assertEquals("user123", result.getUserId());
         assertEquals("USD", result.getCurrency()); // Should use default from user settings
-        verify(transactionsRepo, times(1)).countByUserId("user123");
-        verify(systemSettingsRepo, times(1)).findFirstByOrderByIdAsc();
+        verify(transactionCounterService, times(1)).reserve("user123", 1, 100);
+        verify(transactionsRepo, never()).countByUserId(anyString());
+        verify(systemSettingsService, times(1)).current();
         verify(transactionsRepo, times(1)).save(any(Transaction.class));
-        // Verify budget was updated since this is an expense transaction
-        verify(budgetService, times(1)).updateBudgetForUser("user123");
+        // The new expense is applied to the budget as a delta, no month recompute
+        verify(budgetService, times(1)).applyExpenseDelta("user123", null, result);
+        verify(budgetService, never()).updateBudgetForUser(anyString());
+    }
+
+    @Test
+    void testCreateTransaction_StoresConfiguredCategoryName() {
+        // Arrange
+        Transaction newTransaction = new Transaction();
+        newTransaction.setType("Income");
+        newTransaction.setCategory(" GROCERIES ");
+        newTransaction.setAmount(50.0);
+        newTransaction.setCurrency("USD");
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
+        when(transactionsRepo.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Transaction result = transactionsService.createTransaction(newTransaction);
+
+        // Assert: any accepted spelling is stored as the configured name
+        assertEquals("Groceries", result.getCategory());
     }
 
     @Test
@@ -166,21 +206,36 @@ public class TransactionsServiceTest {
         newTransaction.setAmount(50.0);
         newTransaction.setCurrency("");
 
-        // Mock transaction count - at the limit
-        when(transactionsRepo.countByUserId("user123")).thenReturn(100L);
+        // Mock the counter - at the limit
+        doThrow(new AppIllegalArgument("Maximum transactions limit for user reached", 400))
+                .when(transactionCounterService).reserve("user123", 1, 100);
 
         // Mock system settings
-        when(systemSettingsRepo.findFirstByOrderByIdAsc()).thenReturn(systemSettings);
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
 
         // Act & Assert
         assertThrows(AppIllegalArgument.class, () ->
                 transactionsService.createTransaction(newTransaction)
         );
-        verify(transactionsRepo, times(1)).countByUserId("user123");
-        verify(systemSettingsRepo, times(1)).findFirstByOrderByIdAsc();
+        verify(transactionCounterService, times(1)).reserve("user123", 1, 100);
+        verify(systemSettingsService, times(1)).current();
         verify(transactionsRepo, never()).save(any(Transaction.class));
     }
 
+    @Test
+    void testCreateTransaction_ReleasesReservationWhenSaveFails() {
+        // Arrange
+        transaction.setId(null);
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
+        when(transactionsRepo.save(any(Transaction.class))).thenThrow(new RuntimeException("write failed"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> transactionsService.createTransaction(transaction));
+        verify(transactionCounterService, times(1)).reserve("user123", 1, 100);
+        verify(transactionCounterService, times(1)).adjust("user123", -1);
+        verify(budgetService, never()).applyExpenseDelta(anyString(), any(), any());
+    }
+
     @Test
     void testGetTransactionById_Success() {
         // Arrange
@@ -294,6 +349,7 @@ public class TransactionsServiceTest {
         updatedTransaction.setIsRecurring(false);
 
         when(transactionsRepo.findById("trans123")).thenReturn(Optional.of(transaction));
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
         when(transactionsRepo.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
@@ -307,6 +363,12 @@ public class TransactionsServiceTest {
         assertEquals(3000.0, result.getAmount());
         verify(transactionsRepo, times(1)).findById("trans123");
         verify(transactionsRepo, times(1)).save(any(Transaction.class));
+        // the budget sees the expense as it was before the update, not the mutated instance
+        ArgumentCaptor<Transaction> before = ArgumentCaptor.forClass(Transaction.class);
+        verify(budgetService, times(1)).applyExpenseDelta(eq("user123"), before.capture(), eq(result));
+        assertEquals("Expense", before.getValue().getType());
+        assertEquals(100.0, before.getValue().getAmount());
+        assertEquals("USD", before.getValue().getCurrency());
     }
 
     @Test
@@ -323,6 +385,7 @@ public class TransactionsServiceTest {
         updatedTransaction.setIsRecurring(false);
 
         when(transactionsRepo.findById("trans123")).thenReturn(Optional.of(transaction));
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
         when(transactionsRepo.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
@@ -349,6 +412,7 @@ public class TransactionsServiceTest {
         updatedTransaction.setRecurrence(recurrenceDetails);
 
         when(transactionsRepo.findById("trans123")).thenReturn(Optional.of(transaction));
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
         when(transactionsRepo.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
@@ -375,6 +439,7 @@ public class TransactionsServiceTest {
         updatedTransaction.setRecurrence(null); // Missing recurrence details
 
         when(transactionsRepo.findById("trans123")).thenReturn(Optional.of(transaction));
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
 
         // Act & Assert
         assertThrows(AppIllegalArgument.class, () ->
@@ -397,24 +462,37 @@ public class TransactionsServiceTest {
     @Test
     void testDeleteTransaction_Success() {
         // Arrange
-        doNothing().when(transactionsRepo).deleteById("trans123");
+        when(transactionRepository.removeById("trans123")).thenReturn(transaction);
 
         // Act
         String result = transactionsService.deleteTransaction("trans123");
 
         // Assert
         assertEquals("Transaction deleted successfully", result);
-        verify(transactionsRepo, times(1)).deleteById("trans123");
+        verify(transactionCounterService, times(1)).adjust("user123", -1);
+        verify(dataVersionService, times(1)).bump("user123");
+        verify(budgetService, times(1)).applyExpenseDelta("user123", transaction, null);
     }
 
     @Test
     void testDeleteTransaction_NotFound() {
-        // Arrange
-        doThrow(new RuntimeException()).when(transactionsRepo).deleteById("nonexistent");
+        // Arrange: already removed, e.g. by a concurrent delete
+        when(transactionRepository.removeById("nonexistent")).thenReturn(null);
 
         // Act & Assert
         assertThrows(NotFoundException.class, () -> transactionsService.deleteTransaction("nonexistent"));
-        verify(transactionsRepo, times(1)).deleteById("nonexistent");
+        verify(transactionCounterService, never()).adjust(anyString(), anyLong());
+        verify(budgetService, never()).applyExpenseDelta(anyString(), any(), any());
+    }
+
+    @Test
+    void testDeleteTransaction_FollowUpFailureIsNotReportedAsNotFound() {
+        // Arrange
+        when(transactionRepository.removeById("trans123")).thenReturn(transaction);
+        doThrow(new IllegalStateException("counter unavailable")).when(transactionCounterService).adjust("user123", -1);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> transactionsService.deleteTransaction("trans123"));
     }
 
     @Test
@@ -629,6 +707,155 @@ public class TransactionsServiceTest {
                 updatedRecurring.getRecurrence().getNextExecutionDate());
     }
 
+    @Test
+    void testGetTransactionsPage_ReturnsCursorWhenMoreRowsExist() {
+        // Arrange: limit 2, repository returns the extra look-ahead row
+        Transaction first = pageRow("t3", "2025-03-03T10:00");
+        Transaction second = pageRow("t2", "2025-03-02T10:00");
+        Transaction extra = pageRow("t1", "2025-03-01T10:00");
+        TransactionFilter filter = new TransactionFilter("Expense", null, null, null);
+        when(transactionRepository.findPage("user123", filter, null, 3)).thenReturn(List.of(first, second, extra));
+        when(transactionRepository.cursorOf(second)).thenReturn(new PageCursor("@1740909600000", "t2"));
+
+        // Act
+        TransactionPage page = transactionsService.getTransactionsPage("user123", filter, null, 2);
+
+        // Assert
+        assertEquals(List.of(first, second), page.getItems());
+        assertEquals(2, page.getSize());
+        assertTrue(page.isHasMore());
+        // the cursor is taken from the last returned row, not the look-ahead row
+        assertEquals(new PageCursor("@1740909600000", "t2"), PageCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void testGetTransactionsPage_LastPageHasNoCursor() {
+        // Arrange
+        PageCursor after = new PageCursor("@1740909600000", "t2");
+        Transaction last = pageRow("t1", "2025-03-01T10:00");
+        when(transactionRepository.findPage(isNull(), isNull(), eq(after), eq(TransactionsService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of(last));
+
+        // Act
+        TransactionPage page = transactionsService.getTransactionsPage(null, null, after.encode(), null);
+
+        // Assert
+        assertEquals(List.of(last), page.getItems());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionsPage_ClampsLimitAndRejectsInvalidInput() {
+        // Arrange
+        when(transactionRepository.findPage(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        // Act
+        transactionsService.getTransactionsPage("user123", null, null, 10_000);
+
+        // Assert
+        verify(transactionRepository).findPage("user123", null, null, TransactionsService.MAX_PAGE_SIZE + 1);
+        assertThrows(AppIllegalArgument.class, () -> transactionsService.getTransactionsPage("user123", null, null, 0));
+        assertThrows(AppIllegalArgument.class, () -> transactionsService.getTransactionsPage("user123", null, "not a cursor", null));
+    }
+
+    @Test
+    void testCreateTransactions_InsertsBatchWithOneBudgetUpdate() {
+        // Arrange
+        Transaction expense = pageRow(null, "2025-03-01T10:00");
+        expense.setType("Expense");
+        expense.setCurrency("");
+        Transaction income = pageRow(null, "2025-03-02T10:00");
+        income.setType("Income");
+        income.setCurrency("EUR");
+        List<Transaction> batch = List.of(expense, income);
+
+        BudgetService budgetService = mock(BudgetService.class);
+        ReflectionTestUtils.setField(transactionsService, "budgetService", budgetService);
+        when(validator.validate(any(Transaction.class))).thenReturn(Set.of());
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
+        when(transactionRepository.insertAll(batch)).thenReturn(2);
+
+        // Act
+        List<Transaction> result = transactionsService.createTransactions(batch);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertNotNull(expense.getId());
+        assertNotEquals(expense.getId(), income.getId());
+        assertEquals("USD", expense.getCurrency());
+        assertEquals("EUR", income.getCurrency());
+        verify(transactionCounterService, times(1)).reserve("user123", 2, 100);
+        verify(transactionsRepo, never()).save(any(Transaction.class));
+        verify(budgetService, times(1)).updateBudgetForUser("user123");
+        verify(dataVersionService, times(1)).bump("user123");
+    }
+
+    @Test
+    void testCreateTransactions_ReleasesReservationWhenInsertFails() {
+        // Arrange: a failure other than a partial bulk write, e.g. a timeout
+        Transaction expense = pageRow(null, "2025-03-01T10:00");
+        expense.setType("Expense");
+        Transaction income = pageRow(null, "2025-03-02T10:00");
+        income.setType("Income");
+        List<Transaction> batch = List.of(expense, income);
+
+        when(validator.validate(any(Transaction.class))).thenReturn(Set.of());
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
+        when(transactionRepository.insertAll(batch)).thenThrow(new DataAccessResourceFailureException("timed out"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> transactionsService.createTransactions(batch));
+        verify(transactionCounterService, times(1)).reserve("user123", 2, 100);
+        verify(transactionCounterService, times(1)).adjust("user123", -2);
+    }
+
+    @Test
+    void testCreateTransactions_RejectsBatchOverLimit() {
+        // Arrange
+        List<Transaction> batch = List.of(pageRow(null, "2025-03-01T10:00"), pageRow(null, "2025-03-02T10:00"), pageRow(null, "2025-03-03T10:00"));
+        when(validator.validate(any(Transaction.class))).thenReturn(Set.of());
+        when(systemSettingsService.current()).thenReturn(SystemSettingsService.Snapshot.of(systemSettings));
+        doThrow(new AppIllegalArgument("Maximum transactions limit for user reached", 400))
+                .when(transactionCounterService).reserve("user123", 3, 100);
+
+        // Act & Assert
+        assertThrows(AppIllegalArgument.class, () -> transactionsService.createTransactions(batch));
+        verify(transactionRepository, never()).insertAll(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateTransactions_ReportsViolationsByIndex() {
+        // Arrange
+        Transaction valid = pageRow(null, "2025-03-01T10:00");
+        Transaction invalid = pageRow(null, "2025-03-02T10:00");
+        ConstraintViolation<Transaction> violation = mock(ConstraintViolation.class);
+        Path path = mock(Path.class);
+        when(path.toString()).thenReturn("amount");
+        when(violation.getPropertyPath()).thenReturn(path);
+        when(violation.getMessage()).thenReturn("Amount must be positive");
+        when(validator.validate(valid)).thenReturn(Set.of());
+        when(validator.validate(invalid)).thenReturn(Set.of(violation));
+
+        // Act
+        BulkValidationException exception = assertThrows(BulkValidationException.class,
+                () -> transactionsService.createTransactions(List.of(valid, invalid)));
+
+        // Assert
+        assertEquals(List.of("[1] amount: Amount must be positive"), exception.getErrors());
+        verify(transactionCounterService, never()).reserve(anyString(), anyInt(), anyInt());
+        verify(transactionRepository, never()).insertAll(any());
+    }
+
+    private Transaction pageRow(String id, String transactionDate) {
+        Transaction row = new Transaction();
+        row.setId(id);
+        row.setUserId("user123");
+        row.setTransactionDate(LocalDateTime.parse(transactionDate));
+        return row;
+    }
+
     private Transaction createRecurringTransaction() {
         Transaction recurringTransaction = new Transaction();
         recurringTransaction.setId("recur123");
@@ -0,0 +1,146 @@
+package org.spring.pftsystem.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.spring.pftsystem.constants.Constants;
+import org.spring.pftsystem.entity.schema.main.User;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+    private UserCacheService userCacheService;
+    private Document user;
+
+    @BeforeEach
+    void setUp() {
+        converter.afterPropertiesSet();
+        lenient().when(mongoTemplate.getConverter()).thenReturn(converter);
+        lenient().when(mongoTemplate.getCollectionName(User.class)).thenReturn("User");
+        userCacheService = new UserCacheService(mongoTemplate, redisTemplate, listenerContainer, meterRegistry, 100, 30);
+
+        User stored = new User();
+        stored.setId("user123");
+        stored.setFirstName("Jane");
+        stored.setRole("user");
+        stored.setTokenVersion(4);
+        user = new Document();
+        converter.write(stored, user);
+    }
+
+    @Test
+    void testFindById_LoadsOnce() {
+        when(mongoTemplate.findById("user123", Document.class, "User")).thenReturn(user);
+
+        assertEquals("Jane", userCacheService.findById("user123").orElseThrow().getFirstName());
+        assertEquals("Jane", userCacheService.findById("user123").orElseThrow().getFirstName());
+
+        verify(mongoTemplate, times(1)).findById("user123", Document.class, "User");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testFindById_ReturnsCopies() {
+        when(mongoTemplate.findById("user123", Document.class, "User")).thenReturn(user);
+
+        userCacheService.findById("user123").orElseThrow().setFirstName("Changed");
+
+        assertEquals("Jane", userCacheService.findById("user123").orElseThrow().getFirstName());
+    }
+
+    @Test
+    void testFindById_SettingsAreCopiedToo() {
+        when(mongoTemplate.findById("user123", Document.class, "User")).thenReturn(user);
+
+        User changed = userCacheService.findById("user123").orElseThrow();
+        changed.getSettings().setCurrency("EUR");
+        changed.getSettings().getNotificationPreferences().setBudgetWarnings(false);
+
+        User cached = userCacheService.findById("user123").orElseThrow();
+        assertEquals("LKR", cached.getSettings().getCurrency());
+        assertTrue(cached.getSettings().getNotificationPreferences().isBudgetWarnings());
+    }
+
+    @Test
+    void testFindById_CopyKeepsEveryStoredField() {
+        when(mongoTemplate.findById("user123", Document.class, "User")).thenReturn(user);
+
+        User copy = userCacheService.findById("user123").orElseThrow();
+
+        // role and tokenVersion must survive, a save of the copy would otherwise roll them back
+        assertEquals("user", copy.getRole());
+        assertEquals(4, copy.getTokenVersion());
+    }
+
+    @Test
+    void testFindById_MissingUserIsNotCached() {
+        when(mongoTemplate.findById("missing", Document.class, "User")).thenReturn(null);
+
+        assertEquals(Optional.empty(), userCacheService.findById("missing"));
+        assertEquals(Optional.empty(), userCacheService.findById("missing"));
+
+        verify(mongoTemplate, times(2)).findById("missing", Document.class, "User");
+    }
+
+    @Test
+    void testInvalidate_ReloadsAndBroadcasts() {
+        when(mongoTemplate.findById("user123", Document.class, "User")).thenReturn(user);
+        userCacheService.findById("user123");
+
+        userCacheService.invalidate("user123");
+        userCacheService.findById("user123");
+
+        verify(mongoTemplate, times(2)).findById("user123", Document.class, "User");
+        verify(redisTemplate, times(1)).convertAndSend(Constants.USER_CHANGED_CHANNEL, "user123");
+    }
+
+    @Test
+    void testInvalidate_PublishFailureIsIgnored() {
+        doThrow(new RuntimeException("redis down")).when(redisTemplate).convertAndSend(anyString(), anyString());
+
+        assertDoesNotThrow(() -> userCacheService.invalidate("user123"));
+    }
+
+    @Test
+    void testOnMessage_InvalidatesUserOfTokenMessage() {
+        when(mongoTemplate.findById("user123", Document.class, "User")).thenReturn(user);
+        userCacheService.findById("user123");
+
+        userCacheService.onMessage(new DefaultMessage(
+                Constants.TOKEN_INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "user123:jti-1".getBytes(StandardCharsets.UTF_8)), null);
+        userCacheService.findById("user123");
+
+        verify(mongoTemplate, times(2)).findById("user123", Document.class, "User");
+    }
+}
@@ -28,6 +28,12 @@ public class UserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCacheService userCacheService;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
     @InjectMocks
     private UserDetailsService userDetailsService;
 
@@ -126,23 +132,10 @@ public class UserDetailsServiceTest {
         updatedDetails.setFirstName("Jane");
         updatedDetails.setLastName("Smith");
 
-        // Mock findById
-        when(userRepository.findById("user123")).thenReturn(Optional.of(user));
-
         // Mock findByEmail - should return null since email doesn't exist yet
         when(userRepository.findByEmail("updated@example.com")).thenReturn(Optional.empty());
 
-        when(userRepository.save(any(User.class))).thenReturn(user);
-
-        // Reset mock for UserUtil for the second call in getUserDetails method
-        User savedUser = new User();
-        savedUser.setId("user123");
-        savedUser.setEmail("updated@example.com");
-        savedUser.setFirstName("Jane");
-        savedUser.setLastName("Smith");
-        userUtilMockedStatic.when(() -> UserUtil.getUserFromContext(userRepository))
-                .thenReturn(user)  // First call in updateUserDetails
-                .thenReturn(savedUser); // Second call in getUserDetails
+        when(userRepository.updateProfile("user123", "updated@example.com", "Jane", "Smith")).thenReturn(true);
 
         // Act
         UserDetails result = userDetailsService.updateUserDetails(updatedDetails);
@@ -154,9 +147,12 @@ public class UserDetailsServiceTest {
         assertEquals("Smith", result.getLastName());
 
         // Verify interactions
-        verify(userRepository, times(1)).findById("user123");
+        verify(userRepository, never()).findById(anyString()); // current user is resolved once per request
         verify(userRepository, times(1)).findByEmail("updated@example.com");
-        verify(userRepository, times(1)).save(any(User.class));
+        // only the profile fields are written, a cached user could otherwise restore an old role or tokenVersion
+        verify(userRepository, times(1)).updateProfile("user123", "updated@example.com", "Jane", "Smith");
+        verify(userRepository, never()).save(any(User.class));
+        verify(dataVersionService, times(1)).bump("user123"); // cached dashboard shows the profile
     }
 
     @Test
@@ -167,9 +163,6 @@ public class UserDetailsServiceTest {
         updatedDetails.setFirstName("Jane");
         updatedDetails.setLastName("Smith");
 
-        // Original user
-        when(userRepository.findById("user123")).thenReturn(Optional.of(user));
-
         // Simulate existing user with this email
         User existingUser = new User();
         existingUser.setId("user456");
@@ -185,7 +178,7 @@ public class UserDetailsServiceTest {
         assertEquals("Email already exists", exception.getMessage());
 
         // Verify
-        verify(userRepository, times(1)).findById("user123");
+        verify(userRepository, never()).findById(anyString()); // current user is resolved once per request
         verify(userRepository, times(1)).findByEmail("existing@example.com");
         verify(userRepository, never()).save(any(User.class));
     }
@@ -219,7 +212,8 @@ public class UserDetailsServiceTest {
         updatedDetails.setEmail("updated@example.com");
 
         // Simulate user not found
-        when(userRepository.findById("user123")).thenReturn(Optional.empty());
+        userUtilMockedStatic.when(() -> UserUtil.getUserFromContext(userRepository))
+                .thenThrow(new UserNotFoundException());
 
         // Act & Assert
         UserNotFoundException exception = assertThrows(
@@ -228,7 +222,7 @@ public class UserDetailsServiceTest {
         );
 
         // Verify
-        verify(userRepository, times(1)).findById("user123");
+        verify(userRepository, never()).findById(anyString()); // current user is resolved once per request
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -240,20 +234,7 @@ public class UserDetailsServiceTest {
         updatedDetails.setFirstName("Jane");
         updatedDetails.setLastName("Smith");
 
-        // Mock findById
-        when(userRepository.findById("user123")).thenReturn(Optional.of(user));
-
-        when(userRepository.save(any(User.class))).thenReturn(user);
-
-        // Reset mock for UserUtil for the second call in getUserDetails method
-        User savedUser = new User();
-        savedUser.setId("user123");
-        savedUser.setEmail("test@example.com");
-        savedUser.setFirstName("Jane");
-        savedUser.setLastName("Smith");
-        userUtilMockedStatic.when(() -> UserUtil.getUserFromContext(userRepository))
-                .thenReturn(user)  // First call in updateUserDetails
-                .thenReturn(savedUser); // Second call in getUserDetails
+        when(userRepository.updateProfile("user123", "test@example.com", "Jane", "Smith")).thenReturn(true);
 
         // Act
         UserDetails result = userDetailsService.updateUserDetails(updatedDetails);
@@ -265,8 +246,8 @@ public class UserDetailsServiceTest {
         assertEquals("Smith", result.getLastName());
 
         // Verify
-        verify(userRepository, times(1)).findById("user123");
+        verify(userRepository, never()).findById(anyString()); // current user is resolved once per request
         verify(userRepository, never()).findByEmail(anyString()); // Should not check for email since it didn't change
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).updateProfile("user123", "test@example.com", "Jane", "Smith");
     }
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ import org.spring.pftsystem.entity.schema.main.User;
 import org.spring.pftsystem.entity.schema.sub.NotificationPreferences;
 import org.spring.pftsystem.entity.schema.sub.UserSettings;
 import org.spring.pftsystem.exception.DatabaseOperationException;
+import org.spring.pftsystem.exception.UserNotFoundException;
 import org.spring.pftsystem.repository.UserRepository;
 import org.spring.pftsystem.utility.UserUtil;
 
@@ -26,6 +27,12 @@ public class UserSettingsServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCacheService userCacheService;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
     @InjectMocks
     private UserSettingsService userSettingsService;
 
@@ -84,7 +91,7 @@ public class UserSettingsServiceTest {
         newSettings.setCurrency("EUR");
         newSettings.setNotificationPreferences(newNotificationPreferences);
 
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.updateSettings("user123", newSettings)).thenReturn(true);
 
         // Act
         UserSettings result = userSettingsService.updateSettings(newSettings);
@@ -94,8 +101,11 @@ public class UserSettingsServiceTest {
         assertEquals("EUR", result.getCurrency());
         assertNotNull(result.getNotificationPreferences());
 
-        // Verify
-        verify(userRepository, times(1)).save(user);
+        // Verify: only the settings are written, never the (possibly cached) user as a whole
+        verify(userRepository, times(1)).updateSettings("user123", newSettings);
+        verify(userRepository, never()).save(any(User.class));
+        verify(userCacheService, times(1)).invalidate(user.getId());
+        verify(dataVersionService, times(1)).bump(user.getId()); // cached dashboard shows the settings
         userUtilMockedStatic.verify(() -> UserUtil.getUserFromContext(userRepository), times(1));
     }
 
@@ -106,7 +116,7 @@ public class UserSettingsServiceTest {
         newSettings.setCurrency("EUR");
         newSettings.setNotificationPreferences(new NotificationPreferences());
 
-        when(userRepository.save(any(User.class))).thenThrow(new RuntimeException("Database connection error"));
+        when(userRepository.updateSettings("user123", newSettings)).thenThrow(new RuntimeException("Database connection error"));
 
         // Act & Assert
         DatabaseOperationException exception = assertThrows(
@@ -117,14 +127,15 @@ public class UserSettingsServiceTest {
         assertEquals("Database connection error", exception.getMessage());
 
         // Verify
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, times(1)).updateSettings("user123", newSettings);
+        verify(userCacheService, never()).invalidate(anyString());
         userUtilMockedStatic.verify(() -> UserUtil.getUserFromContext(userRepository), times(1));
     }
 
     @Test
     void testUpdateSettings_NullSettings() {
         // Arrange
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.updateSettings("user123", null)).thenReturn(true);
 
         // Act
         UserSettings result = userSettingsService.updateSettings(null);
@@ -133,10 +144,21 @@ public class UserSettingsServiceTest {
         assertNull(result);
 
         // Verify
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, times(1)).updateSettings("user123", null);
         userUtilMockedStatic.verify(() -> UserUtil.getUserFromContext(userRepository), times(1));
     }
 
+    @Test
+    void testUpdateSettings_UserNoLongerExists() {
+        // Arrange
+        UserSettings newSettings = new UserSettings();
+        when(userRepository.updateSettings("user123", newSettings)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(UserNotFoundException.class, () -> userSettingsService.updateSettings(newSettings));
+        verify(dataVersionService, never()).bump(anyString());
+    }
+
     @Test
     void testGetUserSettings_WithNullSettings() {
         // Arrange
@@ -0,0 +1,66 @@
+package org.spring.pftsystem.utility;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyManagerTest {
+
+    private static final String OLD_SECRET = "a7690505e17048e02bde918d0a54f00474f47a1428edf724fc39a936459321c8";
+    private static final String NEW_SECRET = "9f3c1d2e4b5a69788766554433221100ffeeddccbbaa99887766554433221100";
+
+    private final Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+
+    @Test
+    void testRotation_OldTokensVerifyWithPreviousSecret() {
+        JwtUtil oldNode = new JwtUtil(null, new JwtKeyManager("HS256", OLD_SECRET, "", "", "", ""));
+        String oldToken = oldNode.generateToken("user123", Map.of(), expiresAt);
+
+        JwtUtil rotated = new JwtUtil(null, new JwtKeyManager("HS256", NEW_SECRET, OLD_SECRET, "", "", ""));
+        JwtUtil rotatedWithoutOldKey = new JwtUtil(null, new JwtKeyManager("HS256", NEW_SECRET, "", "", "", ""));
+
+        assertTrue(rotated.verify(oldToken).isValid());
+        assertTrue(rotated.verify(rotated.generateToken("user123", Map.of(), expiresAt)).isValid());
+        assertEquals(JwtVerification.Failure.INVALID_SIGNATURE, rotatedWithoutOldKey.verify(oldToken).getFailure());
+    }
+
+    @Test
+    void testLegacyTokenWithoutKeyId() {
+        JwtKeyManager keyManager = new JwtKeyManager("HS256", OLD_SECRET, "", "", "", "");
+        String legacyToken = Jwts.builder()
+                .setSubject("user123")
+                .setExpiration(expiresAt)
+                .signWith(keyManager.getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertTrue(new JwtUtil(null, keyManager).verify(legacyToken).isValid());
+    }
+
+    @Test
+    void testEs256_VerifyOnlyNodeNeedsNoSecret() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+        String privateKey = Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded());
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+
+        JwtUtil signingNode = new JwtUtil(null, new JwtKeyManager("ES256", "", "", privateKey, publicKey, ""));
+        JwtKeyManager verifyOnlyKeys = new JwtKeyManager("ES256", "", "", "", publicKey, "");
+        String token = signingNode.generateToken("user123", Map.of("role", "user"), expiresAt);
+
+        JwtVerification verification = new JwtUtil(null, verifyOnlyKeys).verify(token);
+
+        assertTrue(verification.isValid());
+        assertEquals("user123", verification.getClaims().getSubject());
+        assertThrows(IllegalStateException.class, verifyOnlyKeys::getSigningKey);
+    }
+}
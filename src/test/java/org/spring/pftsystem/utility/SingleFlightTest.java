@@ -0,0 +1,90 @@
+package org.spring.pftsystem.utility;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+    private final SingleFlight.Key key = new SingleFlight.Key("user123", "dashboard.user", "");
+
+    @Test
+    void testConcurrentCallers_ShareOneExecution() throws Exception {
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute(key, () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "dashboard";
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(key, () -> {
+                    executions.incrementAndGet();
+                    return "recomputed";
+                })));
+            }
+            // waiters are counted before they block
+            while (meterRegistry.counter("singleflight.calls", "operation", "dashboard.user", "role", "waiter").count() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("dashboard", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(1.0, meterRegistry.counter("singleflight.calls", "operation", "dashboard.user", "role", "leader").count());
+    }
+
+    @Test
+    void testSequentialCalls_AreNotCached() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute(key, executions::incrementAndGet);
+        singleFlight.execute(key, executions::incrementAndGet);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testCheckedException_IsRethrownAndKeyReleased() {
+        assertThrows(ParseException.class, () -> singleFlight.execute(key, () -> {
+            throw new ParseException("bad date", 0);
+        }));
+
+        assertEquals("ok", singleFlight.execute(key, () -> "ok"));
+    }
+
+    @Test
+    void testCanonical_IgnoresOrder() {
+        assertEquals(SingleFlight.canonical(List.of("Food", "Bills")), SingleFlight.canonical(List.of("Bills", "Food")));
+        assertEquals("", SingleFlight.canonical(null));
+    }
+}
@@ -0,0 +1,119 @@
+package org.spring.pftsystem.utility;
+
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.spring.pftsystem.entity.schema.main.Budget;
+import org.spring.pftsystem.entity.schema.main.Goal;
+import org.spring.pftsystem.entity.schema.sub.CategoryLimit;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmileRedisSerializerTest {
+
+    private final SmileRedisSerializer serializer = new SmileRedisSerializer();
+
+    @Test
+    void testRoundTrip_KeepsTypeOfDomainObjects() {
+        Budget budget = budget();
+
+        byte[] bytes = serializer.serialize(budget);
+
+        assertEquals('P', bytes[0]);
+        assertEquals(SmileRedisSerializer.SCHEMA_VERSION, bytes[2]);
+        assertEquals(budget, serializer.deserialize(bytes));
+        assertTrue(bytes.length < new GenericJackson2JsonRedisSerializer().serialize(budget).length);
+    }
+
+    @Test
+    void testRoundTrip_KeepsFinalRootTypes() {
+        // final types carry their type too, otherwise they read back as Integer / LinkedHashMap
+        Object number = serializer.deserialize(serializer.serialize(5L));
+        Object record = serializer.deserialize(serializer.serialize(new Sample("coffee", 3L)));
+
+        assertEquals(Long.class, number.getClass());
+        assertEquals(5L, number);
+        assertEquals(new Sample("coffee", 3L), record);
+        assertEquals("text", serializer.deserialize(serializer.serialize("text")));
+    }
+
+    @Test
+    void testRoundTrip_ListOfGoals() {
+        Goal goal = new Goal();
+        goal.setId("goal1");
+        goal.setGoalName("Car");
+        List<Goal> goals = new ArrayList<>(List.of(goal));
+
+        assertEquals(goals, serializer.deserialize(serializer.serialize(goals)));
+    }
+
+    @Test
+    void testNullValue_RoundTripsAsSingleton() {
+        assertSame(NullValue.INSTANCE, serializer.deserialize(serializer.serialize(NullValue.INSTANCE)));
+        assertNull(serializer.deserialize(null));
+    }
+
+    @Test
+    void testOtherSchemaVersion_ReadAsMiss() {
+        byte[] bytes = serializer.serialize(budget());
+        bytes[2] = (byte) (SmileRedisSerializer.SCHEMA_VERSION + 1);
+        assertNull(serializer.deserialize(bytes));
+
+        bytes[2] = (byte) (SmileRedisSerializer.SCHEMA_VERSION - 1);
+        assertNull(serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testUnknownProperties_AreIgnored() throws Exception {
+        // a field added by a newer build must not break older readers
+        Map<String, Object> written = new LinkedHashMap<>();
+        written.put("@class", Goal.class.getName());
+        written.put("goalName", "Car");
+        written.put("addedLater", 1);
+        byte[] body = new SmileMapper().writeValueAsBytes(written);
+        byte[] bytes = new byte[body.length + 3];
+        bytes[0] = SmileRedisSerializer.MAGIC_0;
+        bytes[1] = SmileRedisSerializer.MAGIC_1;
+        bytes[2] = SmileRedisSerializer.SCHEMA_VERSION;
+        System.arraycopy(body, 0, bytes, 3, body.length);
+
+        Goal goal = (Goal) serializer.deserialize(bytes);
+
+        assertEquals("Car", goal.getGoalName());
+    }
+
+    @Test
+    void testLegacyFormats_AreStillReadable() {
+        Budget budget = budget();
+        ArrayList<String> tags = new ArrayList<>(List.of("Food", "Rent"));
+
+        assertEquals(tags, serializer.deserialize(new JdkSerializationRedisSerializer().serialize(tags)));
+        assertEquals(budget, serializer.deserialize(new GenericJackson2JsonRedisSerializer().serialize(budget)));
+    }
+
+    record Sample(String name, Long count) {
+    }
+
+    static Budget budget() {
+        CategoryLimit limit = new CategoryLimit();
+        limit.setCategory("Food");
+        limit.setLimitAmount(200);
+
+        Budget budget = new Budget();
+        budget.setId("budget123");
+        budget.setUserID("user123");
+        budget.setMonthlyLimit(1000);
+        budget.setCurrentExpenditure(250.5f);
+        budget.setCurrency("LKR");
+        budget.setCategoryLimitsOn(true);
+        budget.setCategoryLimits(new ArrayList<>(List.of(limit)));
+        return budget;
+    }
+}
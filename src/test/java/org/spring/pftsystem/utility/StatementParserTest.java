@@ -0,0 +1,128 @@
+package org.spring.pftsystem.utility;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.spring.pftsystem.exception.AppIllegalArgument;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMappedLineReader_LinesAcrossWindows() throws Exception {
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        Path file = tempDir.resolve("lines.txt");
+        Files.write(file, bom);
+        Files.writeString(file, "first line\r\nsecond, longer line\nlast", StandardCharsets.UTF_8,
+                java.nio.file.StandardOpenOption.APPEND);
+
+        // a 4 byte window forces every line to span several mappings
+        try (MappedLineReader reader = new MappedLineReader(file, 4)) {
+            assertEquals("first line", reader.readLine());
+            assertEquals("second, longer line", reader.readLine());
+            assertEquals("last", reader.readLine());
+            assertNull(reader.readLine());
+            assertEquals(reader.size(), reader.position());
+        }
+    }
+
+    @Test
+    void testCsv_ParsesRowsAndReportsBadOnes() throws Exception {
+        Path file = write("statement.csv", """
+                Date,Payee,Amount,Category,Id
+                2025-03-01,"Shop, ""Main"" St",-12.50,Food,A1
+
+                2025-03-02,Salary,"2,000.00",,
+                not a date,Broken,1,,
+                """);
+
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            StatementParser parser = StatementParser.of(StatementParser.Format.CSV, reader);
+
+            StatementParser.Row first = parser.next();
+            assertEquals(LocalDate.of(2025, 3, 1), first.date());
+            assertEquals(new BigDecimal("-12.50"), first.amount());
+            assertEquals("Shop, \"Main\" St", first.description());
+            assertEquals("Food", first.category());
+            assertEquals("A1", first.externalId());
+
+            StatementParser.Row second = parser.next();
+            assertEquals(new BigDecimal("2000.00"), second.amount());
+            assertNull(second.category());
+
+            assertThrows(StatementParser.RowException.class, parser::next);
+            assertNull(parser.next());
+        }
+    }
+
+    @Test
+    void testCsv_RejectsHeaderWithoutRequiredColumns() throws Exception {
+        Path file = write("statement.csv", "Date,Amount\n2025-03-01,1\n");
+
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            StatementParser parser = StatementParser.of(StatementParser.Format.CSV, reader);
+            assertThrows(AppIllegalArgument.class, parser::next);
+        }
+    }
+
+    @Test
+    void testOfx_SgmlTransactions() throws Exception {
+        Path file = write("statement.ofx", """
+                OFXHEADER:100
+                <OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS>
+                <CURDEF>EUR
+                <BANKTRANLIST>
+                <STMTTRN>
+                <TRNTYPE>DEBIT
+                <DTPOSTED>20250301120000[-5:EST]
+                <TRNAMT>-42.10
+                <FITID>9001
+                <NAME>Grocer &amp; Co
+                <MEMO>Card payment
+                </STMTTRN>
+                <STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20250302<TRNAMT>100<FITID>9002<MEMO>Refund</STMTTRN>
+                </BANKTRANLIST>
+                </STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+                """);
+
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            StatementParser parser = StatementParser.of(StatementParser.Format.OFX, reader);
+
+            StatementParser.Row first = parser.next();
+            assertEquals(LocalDate.of(2025, 3, 1), first.date());
+            assertEquals(new BigDecimal("-42.10"), first.amount());
+            assertEquals("Grocer & Co", first.description());
+            assertEquals("Card payment", first.memo());
+            assertEquals("EUR", first.currency());
+            assertEquals("9001", first.externalId());
+
+            StatementParser.Row second = parser.next();
+            assertEquals("Refund", second.description());
+            assertEquals("9002", second.externalId());
+
+            assertNull(parser.next());
+        }
+    }
+
+    @Test
+    void testFormat_FromParamOrExtension() {
+        assertEquals(StatementParser.Format.CSV, StatementParser.Format.of("csv", "ignored.ofx"));
+        assertEquals(StatementParser.Format.OFX, StatementParser.Format.of(null, "march.QFX"));
+        assertThrows(AppIllegalArgument.class, () -> StatementParser.Format.of(null, "march.pdf"));
+    }
+
+    private Path write(String name, String content) throws Exception {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
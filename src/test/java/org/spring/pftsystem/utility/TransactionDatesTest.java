@@ -0,0 +1,45 @@
+package org.spring.pftsystem.utility;
+
+import org.junit.jupiter.api.Test;
+import org.spring.pftsystem.exception.AppIllegalArgument;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionDatesTest {
+
+    @Test
+    void testParse_LegacyFormats() {
+        LocalDateTime expected = LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_000_000);
+
+        // LocalDateTime.toString() at milli and nano precision, as BudgetService and the admin dashboard compared them
+        assertEquals(expected, TransactionDates.parse("2025-03-01T10:15:30.123"));
+        assertEquals(expected, TransactionDates.parse("2025-03-01T10:15:30.123000000"));
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), TransactionDates.parse("2025-03-01T00:00"));
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), TransactionDates.parse("2025-03-01"));
+
+        // Instant strings, as the user dashboard compared them, land in the server zone
+        Instant instant = Instant.parse("2025-03-01T10:15:30.123Z");
+        assertEquals(LocalDateTime.ofInstant(instant, ZoneId.systemDefault()), TransactionDates.parse("2025-03-01T10:15:30.123Z"));
+    }
+
+    @Test
+    void testBounds_PlainDateCoversTheDay() {
+        assertEquals(LocalDateTime.of(2025, 3, 1, 0, 0), TransactionDates.lowerBound("2025-03-01", "from"));
+        assertEquals(LocalDateTime.of(2025, 3, 2, 0, 0), TransactionDates.upperBoundExclusive("2025-03-01", "to"));
+        assertEquals(LocalDateTime.of(2025, 3, 1, 10, 0, 0, 1_000_000),
+                TransactionDates.upperBoundExclusive("2025-03-01T10:00", "to"));
+        assertNull(TransactionDates.lowerBound(" ", "from"));
+        assertNull(TransactionDates.upperBoundExclusive(null, "to"));
+    }
+
+    @Test
+    void testBounds_RejectInvalidParameter() {
+        AppIllegalArgument exception = assertThrows(AppIllegalArgument.class,
+                () -> TransactionDates.lowerBound("yesterday", "from"));
+        assertEquals(400, exception.getStatusCode());
+    }
+}
@@ -0,0 +1,111 @@
+package org.spring.pftsystem.utility;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.spring.pftsystem.config.TwoLevelCacheProperties;
+import org.spring.pftsystem.constants.Constants;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TwoLevelCacheManagerTest {
+
+    private final ConcurrentMapCache remote = new ConcurrentMapCache(Constants.BUDGET_OF_USER_CACHE);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        RedisCacheManager remoteCacheManager = mock(RedisCacheManager.class);
+        when(remoteCacheManager.getCache(Constants.BUDGET_OF_USER_CACHE)).thenReturn(remote);
+        cacheManager = new TwoLevelCacheManager(remoteCacheManager, new TwoLevelCacheProperties(), redisTemplate,
+                mock(RedisMessageListenerContainer.class), meterRegistry);
+    }
+
+    @Test
+    void testGet_LoadsOnceAndWritesThroughToRedis() {
+        Cache cache = cacheManager.getCache(Constants.BUDGET_OF_USER_CACHE);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("budget", cache.get("user123", () -> { loads.incrementAndGet(); return "budget"; }));
+        assertEquals("budget", cache.get("user123", () -> { loads.incrementAndGet(); return "other"; }));
+
+        assertEquals(1, loads.get());
+        assertEquals("budget", remote.get("user123").get());
+        assertEquals(1.0, meterRegistry.get("cache.l2.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void testLookup_FillsLocalFromRedis() {
+        remote.put("user123", "budget");
+        Cache cache = cacheManager.getCache(Constants.BUDGET_OF_USER_CACHE);
+
+        assertEquals("budget", cache.get("user123").get());
+        remote.evict("user123");
+        assertEquals("budget", cache.get("user123").get()); // served from L1
+
+        assertEquals(1.0, meterRegistry.get("cache.l2.gets").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testEvict_ClearsBothLevelsAndBroadcasts() {
+        Cache cache = cacheManager.getCache(Constants.BUDGET_OF_USER_CACHE);
+        cache.put("user123", "budget");
+
+        cache.evict("user123");
+
+        assertNull(cache.get("user123"));
+        assertNull(remote.get("user123"));
+        verify(redisTemplate, times(2)).convertAndSend(eq(Constants.CACHE_INVALIDATION_CHANNEL), contains("|budgetOfUser|user123"));
+    }
+
+    @Test
+    void testOnMessage_DropsLocalEntryWrittenByAnotherNode() {
+        Cache cache = cacheManager.getCache(Constants.BUDGET_OF_USER_CACHE);
+        cache.put("user123", "old");
+        remote.put("user123", "new"); // another node wrote L2
+
+        cacheManager.onMessage(message("other-node|budgetOfUser|user123"), null);
+
+        assertEquals("new", cache.get("user123").get());
+    }
+
+    @Test
+    void testOnMessage_IgnoresOwnAndMalformedMessages() {
+        Cache cache = cacheManager.getCache(Constants.BUDGET_OF_USER_CACHE);
+        cache.put("user123", "old");
+        remote.put("user123", "new");
+
+        cacheManager.onMessage(message("malformed"), null);
+
+        assertEquals("old", cache.get("user123").get());
+    }
+
+    @Test
+    void testPublishFailure_DoesNotFailWrite() {
+        doThrow(new RuntimeException("redis down")).when(redisTemplate).convertAndSend(anyString(), anyString());
+        Cache cache = cacheManager.getCache(Constants.BUDGET_OF_USER_CACHE);
+
+        assertDoesNotThrow(() -> cache.put("user123", "budget"));
+        assertEquals("budget", cache.get("user123").get());
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(Constants.CACHE_INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}